@@ -0,0 +1,379 @@
+package geometries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import primitives.Ray;
+
+/**
+ * Base class of the spatial indexes over a collection of geometries.
+ * An index is a drop-in replacement for {@link Geometries}: shapes are added the
+ * same way, and the index is built lazily on the first query after a change.
+ * Nested collections are flattened, and unbounded shapes (e.g. planes) are kept
+ * in a separate list beside the index and are always tested. Indexes that support
+ * incremental edits apply added and removed shapes in place instead of rebuilding.
+ * Subclasses only provide the build and a traversal that visits the candidate
+ * shapes of a ray; the list, closest-hit and any-hit queries are built on it.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public abstract class AccelerationStructure extends Geometries {
+    /** Value returned by a visitor to stop the traversal */
+    protected static final double STOP = -1;
+
+    /** Whether the index reflects the current contents of the collection */
+    private volatile boolean built = false;
+    /** Shapes without a bounding box, tested for every ray */
+    private Intersectable[] unbounded = new Intersectable[0];
+
+    /**
+     * Visitor of the candidate shapes that a ray may hit
+     */
+    @FunctionalInterface
+    protected interface ShapeVisitor {
+        /**
+         * Visits a candidate shape
+         *
+         * @param shape       the shape
+         * @param maxDistance the maximum distance of interest from the ray head
+         * @return the new maximum distance of interest (at most maxDistance),
+         *         or {@link #STOP} to stop the traversal
+         */
+        double visit(Intersectable shape, double maxDistance);
+    }
+
+    /**
+     * Per-ray data for slab tests, calculated once per query
+     */
+    protected static final class Probe {
+        /** The ray */
+        final Ray ray;
+        /** The ray head coordinates */
+        final double ox, oy, oz;
+        /** The inverse of the ray direction coordinates */
+        final double invX, invY, invZ;
+
+        /**
+         * Prepares the slab test data of a ray
+         *
+         * @param ray the ray
+         */
+        Probe(Ray ray) {
+            this.ray = ray;
+            ox = ray.head.getX();
+            oy = ray.head.getY();
+            oz = ray.head.getZ();
+            invX = 1 / ray.direction.getX();
+            invY = 1 / ray.direction.getY();
+            invZ = 1 / ray.direction.getZ();
+        }
+
+        /**
+         * Slab test of the ray against a box
+         *
+         * @param box         the box
+         * @param maxDistance the maximum distance of interest
+         * @return the distance at which the ray enters the box, or
+         *         {@link Double#POSITIVE_INFINITY} if it misses the box within range
+         */
+        double enter(BoundingBox box, double maxDistance) {
+            return box.intersect(ox, oy, oz, invX, invY, invZ, maxDistance);
+        }
+    }
+
+    /**
+     * Marks of the shapes visited by a ray, for indexes that may list a shape in several
+     * places (grid cells, k-d tree leaves): a shape was visited by the current ray
+     * if its mark equals the ray number
+     */
+    protected static final class Mailbox {
+        int[] marks = new int[0];
+        int ray = 0;
+
+        /**
+         * Starts a new ray
+         *
+         * @param size the number of shapes
+         */
+        void next(int size) {
+            if (marks.length != size) {
+                marks = new int[size];
+                ray = 0;
+            }
+            if (++ray == 0) { // the ray counter wrapped around
+                Arrays.fill(marks, 0);
+                ray = 1;
+            }
+        }
+
+        /**
+         * Marks a shape as visited
+         *
+         * @param shape the shape index
+         * @return true if the shape was not visited yet by the current ray
+         */
+        boolean mark(int shape) {
+            if (marks[shape] == ray)
+                return false;
+            marks[shape] = ray;
+            return true;
+        }
+    }
+
+    /**
+     * default constructor
+     */
+    protected AccelerationStructure() {
+        super();
+    }
+
+    @Override
+    public void add(Intersectable... geometries) {
+        synchronized (this) {
+            super.add(geometries);
+            if (!built || !edit(geometries, true))
+                invalidate();
+        }
+    }
+
+    @Override
+    public boolean remove(Intersectable geometry) {
+        synchronized (this) {
+            if (!super.remove(geometry))
+                return false;
+            if (!built || !edit(new Intersectable[]{geometry}, false))
+                invalidate();
+            return true;
+        }
+    }
+
+    @Override
+    public boolean replace(Intersectable geometry, Intersectable replacement) {
+        synchronized (this) {
+            if (!super.replace(geometry, replacement))
+                return false;
+            if (!built || !edit(new Intersectable[]{geometry}, false) || !edit(new Intersectable[]{replacement}, true))
+                invalidate();
+            return true;
+        }
+    }
+
+    /**
+     * Applies an edit of the collection to the built index, shape by shape
+     *
+     * @param geometries the added or removed Intersectables, nested collections included
+     * @param insert     true if they were added, false if they were removed
+     * @return true if the index was updated, false if it must be rebuilt instead
+     */
+    private boolean edit(Intersectable[] geometries, boolean insert) {
+        List<Intersectable> all = new ArrayList<>();
+        for (Intersectable geometry : geometries) {
+            if (geometry instanceof Geometries nested)
+                nested.flatten(all);
+            else
+                all.add(geometry);
+        }
+        for (Intersectable shape : all) {
+            BoundingBox box = shape.getBoundingBox();
+            if (box != null) {
+                if (!(insert ? insert(shape, box) : delete(shape, box)))
+                    return false;
+            } else if (insert) {
+                unbounded = Arrays.copyOf(unbounded, unbounded.length + 1);
+                unbounded[unbounded.length - 1] = shape;
+            } else {
+                int index = List.of(unbounded).indexOf(shape);
+                if (index < 0)
+                    return false;
+                Intersectable[] rest = new Intersectable[unbounded.length - 1];
+                System.arraycopy(unbounded, 0, rest, 0, index);
+                System.arraycopy(unbounded, index + 1, rest, index, rest.length - index);
+                unbounded = rest;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Inserts a bounded shape into the built index, for indexes that can be edited
+     * without a rebuild. The default implementation cannot, and asks for a rebuild.
+     *
+     * @param shape the shape
+     * @param box   its bounding box
+     * @return true if the shape was inserted, false if the index must be rebuilt instead
+     */
+    protected boolean insert(Intersectable shape, BoundingBox box) {
+        return false;
+    }
+
+    /**
+     * Deletes a bounded shape from the built index, for indexes that can be edited
+     * without a rebuild. The default implementation cannot, and asks for a rebuild.
+     *
+     * @param shape the shape
+     * @param box   its bounding box
+     * @return true if the shape was deleted, false if the index must be rebuilt instead
+     */
+    protected boolean delete(Intersectable shape, BoundingBox box) {
+        return false;
+    }
+
+    /**
+     * Marks the index as outdated, so that it is rebuilt on the next query
+     */
+    protected final void invalidate() {
+        built = false;
+    }
+
+    /**
+     * Builds the index over the bounded shapes of the collection
+     *
+     * @param shapes the bounded shapes, with nested collections flattened
+     * @param boxes  the bounding boxes of the shapes, by the same order
+     */
+    protected abstract void build(Intersectable[] shapes, BoundingBox[] boxes);
+
+    /**
+     * Visits the indexed shapes that the ray may hit within a distance, nearer ones
+     * first where the index allows it. Each shape must be visited at most once.
+     *
+     * @param ray         the ray
+     * @param maxDistance the maximum distance from the ray head
+     * @param visitor     the visitor, which may shrink the distance or stop the traversal
+     * @return the final maximum distance, or {@link #STOP} if the visitor stopped the traversal
+     */
+    protected abstract double traverse(Ray ray, double maxDistance, ShapeVisitor visitor);
+
+    @Override
+    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        ensureBuilt();
+        ListCollector collector = new ListCollector(ray);
+        for (Intersectable shape : unbounded)
+            collector.visit(shape, maxDistance);
+        traverse(ray, maxDistance, collector);
+        return collector.intersections;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        ensureBuilt();
+        ClosestFinder finder = new ClosestFinder(ray);
+        for (Intersectable shape : unbounded)
+            maxDistance = finder.visit(shape, maxDistance);
+        traverse(ray, maxDistance, finder);
+        return finder.closest;
+    }
+
+    @Override
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet) {
+        ensureBuilt();
+        for (Intersectable shape : unbounded)
+            shape.findClosestGeoIntersectionsHelper(packet);
+        traverse(packet);
+    }
+
+    /**
+     * Finds the closest hits of a packet of rays among the indexed shapes.
+     * The default implementation traverses the index for each ray separately; indexes
+     * that can visit their nodes once for the whole packet override it.
+     *
+     * @param packet the rays and their closest hits so far
+     */
+    protected void traverse(RayPacket packet) {
+        for (int i = 0; i < packet.size; ++i) {
+            ClosestFinder finder = new ClosestFinder(packet.rays[i]);
+            traverse(packet.rays[i], packet.tMax[i], finder);
+            if (finder.closest != null)
+                packet.setClosest(i, finder.closest);
+        }
+    }
+
+    @Override
+    protected boolean findAnyIntersectionHelper(Ray ray, double maxDistance, Predicate<Geometry> blocker) {
+        ensureBuilt();
+        for (Intersectable shape : unbounded)
+            if (shape.findAnyIntersectionHelper(ray, maxDistance, blocker))
+                return true;
+        return traverse(ray, maxDistance,
+                (shape, distance) -> shape.findAnyIntersectionHelper(ray, distance, blocker) ? STOP : distance)
+                == STOP;
+    }
+
+    /**
+     * Builds the index if shapes were added since the last build.
+     * Rendering threads may query concurrently, so only one of them builds.
+     */
+    protected final void ensureBuilt() {
+        if (built)
+            return;
+        synchronized (this) {
+            if (built)
+                return;
+            List<Intersectable> all = new ArrayList<>();
+            flatten(all);
+            List<Intersectable> bounded = new ArrayList<>();
+            List<BoundingBox> boxes = new ArrayList<>();
+            List<Intersectable> unboundedShapes = new ArrayList<>();
+            for (Intersectable shape : all) {
+                BoundingBox box = shape.getBoundingBox();
+                if (box == null)
+                    unboundedShapes.add(shape);
+                else {
+                    bounded.add(shape);
+                    boxes.add(box);
+                }
+            }
+            unbounded = unboundedShapes.toArray(new Intersectable[0]);
+            build(bounded.toArray(new Intersectable[0]), boxes.toArray(new BoundingBox[0]));
+            built = true;
+        }
+    }
+
+    /**
+     * Visitor collecting all the intersections of the visited shapes
+     */
+    private static final class ListCollector implements ShapeVisitor {
+        private final Ray ray;
+        private LinkedList<GeoPoint> intersections = null;
+
+        ListCollector(Ray ray) {
+            this.ray = ray;
+        }
+
+        @Override
+        public double visit(Intersectable shape, double maxDistance) {
+            List<GeoPoint> found = shape.findGeoIntersectionsHelper(ray, maxDistance);
+            if (found != null) {
+                if (intersections == null)
+                    intersections = new LinkedList<>();
+                intersections.addAll(found);
+            }
+            return maxDistance;
+        }
+    }
+
+    /**
+     * Visitor keeping the closest intersection, shrinking the distance as it goes
+     */
+    private static final class ClosestFinder implements ShapeVisitor {
+        private final Ray ray;
+        private GeoPoint closest = null;
+
+        ClosestFinder(Ray ray) {
+            this.ray = ray;
+        }
+
+        @Override
+        public double visit(Intersectable shape, double maxDistance) {
+            GeoPoint shapeClosest = shape.findClosestGeoIntersectionHelper(ray, maxDistance);
+            // of shapes hit at the same distance, the first one visited is kept
+            if (shapeClosest == null || closest != null && shapeClosest.t >= closest.t)
+                return maxDistance;
+            closest = shapeClosest;
+            return shapeClosest.t;
+        }
+    }
+}
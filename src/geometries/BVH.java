@@ -0,0 +1,305 @@
+package geometries;
+
+import primitives.Ray;
+
+/**
+ * Bounding volume hierarchy (BVH) over a collection of geometries.
+ * The tree is built with the binned surface area heuristic (SAH), so that a ray
+ * visits a logarithmic number of nodes instead of every shape in the scene.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public class BVH extends AccelerationStructure {
+    /** Number of centroid bins per axis when evaluating the SAH */
+    private static final int BIN_COUNT = 12;
+    /** Nodes with this many shapes or fewer may become leaves */
+    private static final int MAX_LEAF_SIZE = 4;
+    /** Estimated cost of visiting an inner node, relative to a shape intersection */
+    private static final double TRAVERSAL_COST = 0.125;
+    /** Estimated cost of intersecting a single shape */
+    private static final double INTERSECTION_COST = 1;
+
+    /** The root of the tree, null if there are no bounded shapes */
+    private Node root;
+
+    /**
+     * A node of the hierarchy: either an inner node with two children or a leaf
+     * holding a few shapes, or a {@link PrimitiveBlock} of them.
+     */
+    static final class Node {
+        final BoundingBox box;
+        final Node left, right;
+        final Intersectable[] shapes;
+
+        Node(BoundingBox box, Node left, Node right) {
+            this.box = box;
+            this.left = left;
+            this.right = right;
+            this.shapes = null;
+        }
+
+        Node(BoundingBox box, Intersectable[] shapes) {
+            this.box = box;
+            this.left = null;
+            this.right = null;
+            this.shapes = shapes;
+        }
+    }
+
+    /**
+     * A shape and its bounding box, used while building the tree
+     */
+    private record Item(Intersectable shape, BoundingBox box) {
+        double center(int axis) {
+            return box.center(axis);
+        }
+    }
+
+    /**
+     * default constructor
+     */
+    public BVH() {
+        super();
+    }
+
+    /**
+     * construct a hierarchy with starting shapes
+     *
+     * @param geometries list of Intersectables the hierarchy will contain
+     */
+    public BVH(Intersectable... geometries) {
+        super();
+        add(geometries);
+    }
+
+    @Override
+    protected void build(Intersectable[] shapes, BoundingBox[] boxes) {
+        root = buildTree(shapes, boxes);
+    }
+
+    /**
+     * Builds a tree over shapes with the surface area heuristic
+     *
+     * @param shapes the shapes
+     * @param boxes  the bounding boxes of the shapes, by the same order
+     * @return the root of the tree, null if there are no shapes
+     */
+    static Node buildTree(Intersectable[] shapes, BoundingBox[] boxes) {
+        Item[] items = new Item[shapes.length];
+        for (int i = 0; i < shapes.length; ++i)
+            items[i] = new Item(shapes[i], boxes[i]);
+        return items.length == 0 ? null : build(items, 0, items.length);
+    }
+
+    @Override
+    protected double traverse(Ray ray, double maxDistance, ShapeVisitor visitor) {
+        if (root == null)
+            return maxDistance;
+        Probe probe = new Probe(ray);
+        if (probe.enter(root.box, maxDistance) == Double.POSITIVE_INFINITY)
+            return maxDistance;
+        return traverse(root, probe, maxDistance, visitor);
+    }
+
+    /**
+     * Recursively visits the shapes under a node whose box is hit by the ray.
+     * The nearer child is visited first, and the farther child is skipped when its box
+     * starts beyond the distance left after visiting the nearer one.
+     *
+     * @param node        the node to search
+     * @param probe       the ray and its slab test data
+     * @param maxDistance the maximum distance from the ray head
+     * @param visitor     the visitor of the shapes
+     * @return the final maximum distance, or {@link #STOP} if the visitor stopped the traversal
+     */
+    private double traverse(Node node, Probe probe, double maxDistance, ShapeVisitor visitor) {
+        if (node.shapes != null) {
+            for (Intersectable shape : node.shapes) {
+                maxDistance = visitor.visit(shape, maxDistance);
+                if (maxDistance == STOP)
+                    return STOP;
+            }
+            return maxDistance;
+        }
+
+        Node near = node.left, far = node.right;
+        double tNear = probe.enter(near.box, maxDistance), tFar = probe.enter(far.box, maxDistance);
+        if (tFar < tNear) {
+            near = node.right;
+            far = node.left;
+            double tmp = tNear;
+            tNear = tFar;
+            tFar = tmp;
+        }
+        if (tNear != Double.POSITIVE_INFINITY) {
+            maxDistance = traverse(near, probe, maxDistance, visitor);
+            if (maxDistance == STOP)
+                return STOP;
+        }
+        // the negated comparison keeps a NaN entry distance (ray on a box face) conservative
+        if (tFar != Double.POSITIVE_INFINITY && !(tFar > maxDistance))
+            maxDistance = traverse(far, probe, maxDistance, visitor);
+        return maxDistance;
+    }
+
+    @Override
+    protected void traverse(RayPacket packet) {
+        if (root != null && packet.enter(root.box) != Double.POSITIVE_INFINITY)
+            traverse(root, packet);
+    }
+
+    /**
+     * Recursively visits the shapes under a node whose box is hit by some ray of a packet.
+     * The child entered first by the packet is visited first, and the other child is
+     * tested again after it, with the ranges shrunk by the hits found meanwhile.
+     *
+     * @param node   the node to search
+     * @param packet the rays and their closest hits so far
+     */
+    private void traverse(Node node, RayPacket packet) {
+        if (node.shapes != null) {
+            for (Intersectable shape : node.shapes)
+                shape.findClosestGeoIntersectionsHelper(packet);
+            return;
+        }
+        Node near = node.left, far = node.right;
+        double tNear = packet.enter(near.box), tFar = packet.enter(far.box);
+        if (tFar < tNear) {
+            near = node.right;
+            far = node.left;
+            double tmp = tNear;
+            tNear = tFar;
+            tFar = tmp;
+        }
+        if (tNear != Double.POSITIVE_INFINITY)
+            traverse(near, packet);
+        if (tFar != Double.POSITIVE_INFINITY && packet.enter(far.box) != Double.POSITIVE_INFINITY)
+            traverse(far, packet);
+    }
+
+    /**
+     * Recursively builds the subtree of a range of items, splitting it where the
+     * surface area heuristic estimates the lowest traversal cost
+     *
+     * @param items the items, reordered in place
+     * @param from  first item of the range (inclusive)
+     * @param to    last item of the range (exclusive)
+     * @return the root of the subtree
+     */
+    private static Node build(Item[] items, int from, int to) {
+        BoundingBox box = items[from].box();
+        double[] cMin = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] cMax = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = from; i < to; ++i) {
+            box = box.union(items[i].box());
+            for (int axis = 0; axis < 3; ++axis) {
+                cMin[axis] = Math.min(cMin[axis], items[i].center(axis));
+                cMax[axis] = Math.max(cMax[axis], items[i].center(axis));
+            }
+        }
+        int count = to - from;
+        if (count <= 2)
+            return leaf(box, items, from, to);
+
+        double area = box.surfaceArea();
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1, bestSplit = -1;
+        for (int axis = 0; axis < 3; ++axis) {
+            double extent = cMax[axis] - cMin[axis];
+            if (extent <= 0)
+                continue;
+            int[] binCount = new int[BIN_COUNT];
+            BoundingBox[] binBox = new BoundingBox[BIN_COUNT];
+            for (int i = from; i < to; ++i) {
+                int bin = bin(items[i].center(axis), cMin[axis], extent);
+                ++binCount[bin];
+                binBox[bin] = binBox[bin] == null ? items[i].box() : binBox[bin].union(items[i].box());
+            }
+            // sweep from the right to get the area and count on the right of each split
+            double[] rightArea = new double[BIN_COUNT - 1];
+            int[] rightCount = new int[BIN_COUNT - 1];
+            BoundingBox acc = null;
+            int n = 0;
+            for (int i = BIN_COUNT - 1; i > 0; --i) {
+                if (binBox[i] != null)
+                    acc = acc == null ? binBox[i] : acc.union(binBox[i]);
+                n += binCount[i];
+                rightArea[i - 1] = acc == null ? 0 : acc.surfaceArea();
+                rightCount[i - 1] = n;
+            }
+            // sweep from the left and evaluate each split
+            acc = null;
+            n = 0;
+            for (int i = 0; i < BIN_COUNT - 1; ++i) {
+                if (binBox[i] != null)
+                    acc = acc == null ? binBox[i] : acc.union(binBox[i]);
+                n += binCount[i];
+                if (n == 0 || rightCount[i] == 0)
+                    continue;
+                double cost = TRAVERSAL_COST + INTERSECTION_COST
+                        * (acc.surfaceArea() * n + rightArea[i] * rightCount[i]) / (area > 0 ? area : 1);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestSplit = i;
+                }
+            }
+        }
+
+        int mid;
+        if (bestAxis < 0) {
+            // all the centroids coincide - no spatial split is possible
+            if (count <= MAX_LEAF_SIZE)
+                return leaf(box, items, from, to);
+            mid = (from + to) / 2;
+        } else {
+            if (bestCost >= INTERSECTION_COST * count && count <= MAX_LEAF_SIZE)
+                return leaf(box, items, from, to);
+            mid = partition(items, from, to, bestAxis, bestSplit, cMin[bestAxis], cMax[bestAxis] - cMin[bestAxis]);
+        }
+        return new Node(box, build(items, from, mid), build(items, mid, to));
+    }
+
+    /**
+     * Finds the bin of a centroid coordinate
+     *
+     * @param center the centroid coordinate
+     * @param min    the lowest centroid coordinate in the node
+     * @param extent the extent of the centroids in the node
+     * @return the bin index
+     */
+    private static int bin(double center, double min, double extent) {
+        int bin = (int) (BIN_COUNT * (center - min) / extent);
+        return Math.min(bin, BIN_COUNT - 1);
+    }
+
+    /**
+     * Reorders a range of items so that the ones in bins up to the split come first
+     *
+     * @return the index of the first item on the right side of the split
+     */
+    private static int partition(Item[] items, int from, int to, int axis, int split, double min, double extent) {
+        int i = from, j = to - 1;
+        while (i <= j) {
+            if (bin(items[i].center(axis), min, extent) <= split)
+                ++i;
+            else {
+                Item tmp = items[i];
+                items[i] = items[j];
+                items[j--] = tmp;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Creates a leaf holding a range of items, with its spheres and triangles grouped
+     * into a block that is intersected in bulk
+     */
+    private static Node leaf(BoundingBox box, Item[] items, int from, int to) {
+        Intersectable[] shapes = new Intersectable[to - from];
+        for (int i = from; i < to; ++i)
+            shapes[i - from] = items[i].shape();
+        return new Node(box, PrimitiveBlock.group(shapes));
+    }
+}
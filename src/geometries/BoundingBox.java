@@ -0,0 +1,187 @@
+package geometries;
+
+import primitives.Point;
+
+/**
+ * Axis-aligned bounding box (AABB) of a bounded intersectable.
+ * The box is used by acceleration structures to skip whole groups of
+ * geometries that a ray cannot hit.
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public class BoundingBox {
+    /**
+     * Relative slack for the slab test, so that rays grazing a flat box
+     * (e.g. the box of an axis-aligned triangle) are not lost to rounding
+     */
+    private static final double SLAB_TOLERANCE = 1 + 1e-12;
+
+    /** Lower corner coordinates */
+    public final double minX, minY, minZ;
+    /** Upper corner coordinates */
+    public final double maxX, maxY, maxZ;
+
+    /**
+     * Constructs a box from its lower and upper corner coordinates.
+     *
+     * @param minX lower x bound
+     * @param minY lower y bound
+     * @param minZ lower z bound
+     * @param maxX upper x bound
+     * @param maxY upper y bound
+     * @param maxZ upper z bound
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest box containing all the given points.
+     *
+     * @param points the points to enclose
+     * @return the bounding box of the points
+     */
+    public static BoundingBox of(Point... points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            minZ = Math.min(minZ, p.getZ());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+            maxZ = Math.max(maxZ, p.getZ());
+        }
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Constructs the smallest box containing this box and another one.
+     *
+     * @param other the other box
+     * @return the union box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Returns the lower bound of the box along an axis.
+     *
+     * @param axis 0 for x, 1 for y, 2 for z
+     * @return the lower bound
+     */
+    public double min(int axis) {
+        return axis == 0 ? minX : axis == 1 ? minY : minZ;
+    }
+
+    /**
+     * Returns the upper bound of the box along an axis.
+     *
+     * @param axis 0 for x, 1 for y, 2 for z
+     * @return the upper bound
+     */
+    public double max(int axis) {
+        return axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+    }
+
+    /**
+     * Returns the center of the box along an axis.
+     *
+     * @param axis 0 for x, 1 for y, 2 for z
+     * @return the center coordinate
+     */
+    public double center(int axis) {
+        return (min(axis) + max(axis)) / 2;
+    }
+
+    /**
+     * Calculates the surface area of the box, used by the surface area heuristic.
+     *
+     * @return the surface area
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Slab test of a ray against the box.
+     * The inverse direction is passed in so that it is calculated once per ray
+     * rather than once per box.
+     *
+     * @param ox          ray head x
+     * @param oy          ray head y
+     * @param oz          ray head z
+     * @param invX        1 / direction x
+     * @param invY        1 / direction y
+     * @param invZ        1 / direction z
+     * @param maxDistance the farthest distance along the ray that is of interest
+     * @return the distance at which the ray enters the box (0 if it starts inside),
+     *         or {@link Double#POSITIVE_INFINITY} if the ray misses the box within range
+     */
+    public double intersect(double ox, double oy, double oz,
+                            double invX, double invY, double invZ, double maxDistance) {
+        return intersect(minX, minY, minZ, maxX, maxY, maxZ, ox, oy, oz, invX, invY, invZ, maxDistance);
+    }
+
+    /**
+     * Slab test of a ray against a box given by its corner coordinates, for
+     * acceleration structures that keep their boxes in flat arrays.
+     *
+     * @return the distance at which the ray enters the box (0 if it starts inside),
+     *         or {@link Double#POSITIVE_INFINITY} if the ray misses the box within range
+     * @see #intersect(double, double, double, double, double, double, double)
+     */
+    static double intersect(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                            double ox, double oy, double oz,
+                            double invX, double invY, double invZ, double maxDistance) {
+        double tNear = 0, tFar = maxDistance;
+
+        double t1 = (minX - ox) * invX, t2 = (maxX - ox) * invX;
+        tNear = Math.max(tNear, Math.min(t1, t2));
+        tFar = Math.min(tFar, Math.max(t1, t2));
+
+        t1 = (minY - oy) * invY;
+        t2 = (maxY - oy) * invY;
+        tNear = Math.max(tNear, Math.min(t1, t2));
+        tFar = Math.min(tFar, Math.max(t1, t2));
+
+        t1 = (minZ - oz) * invZ;
+        t2 = (maxZ - oz) * invZ;
+        tNear = Math.max(tNear, Math.min(t1, t2));
+        tFar = Math.min(tFar, Math.max(t1, t2));
+
+        return tNear > tFar * SLAB_TOLERANCE ? Double.POSITIVE_INFINITY : tNear;
+    }
+
+    /**
+     * Converts boxes kept in a flat array (minX, minY, minZ, maxX, maxY, maxZ of each box)
+     * to single precision, rounding the minimums down and the maximums up, so that every
+     * converted box contains the original one
+     *
+     * @param bounds the boxes
+     * @return the boxes in single precision
+     */
+    static float[] roundOutwards(double[] bounds) {
+        float[] rounded = new float[bounds.length];
+        for (int i = 0; i < bounds.length; ++i) {
+            float value = (float) bounds[i];
+            if (i % 6 < 3)
+                rounded[i] = value > bounds[i] ? Math.nextDown(value) : value;
+            else
+                rounded[i] = value < bounds[i] ? Math.nextUp(value) : value;
+        }
+        return rounded;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox [(" + minX + "," + minY + "," + minZ + ") - (" + maxX + "," + maxY + "," + maxZ + ")]";
+    }
+}
@@ -26,6 +26,25 @@ public class Cylinder extends Tube {
         this._height = height;
     }
 
+    /**
+     * The cylinder is bounded by the boxes of its two base discs. A disc of radius r
+     * with unit normal d extends r * sqrt(1 - d_a^2) along each axis a.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        Point p0 = axisRay.head;
+        Point p1 = axisRay.getPoint(_height);
+        Vector dir = axisRay.direction;
+        double ex = _radius * Math.sqrt(Math.max(0, 1 - dir.getX() * dir.getX()));
+        double ey = _radius * Math.sqrt(Math.max(0, 1 - dir.getY() * dir.getY()));
+        double ez = _radius * Math.sqrt(Math.max(0, 1 - dir.getZ() * dir.getZ()));
+        return new BoundingBox(
+                Math.min(p0.getX(), p1.getX()) - ex, Math.min(p0.getY(), p1.getY()) - ey,
+                Math.min(p0.getZ(), p1.getZ()) - ez,
+                Math.max(p0.getX(), p1.getX()) + ex, Math.max(p0.getY(), p1.getY()) + ey,
+                Math.max(p0.getZ(), p1.getZ()) + ez);
+    }
+
 
     /**
      * Gets the normal vector to the cylinder at a specified point.
@@ -37,22 +56,19 @@ public class Cylinder extends Tube {
     public Vector getNormal(Point point) {
         Point p0 = axisRay.head;
         Vector dir = axisRay.direction;
-        double t;
+        // the point is in the center of the base
+        Vector u = point.subtractOrNull(p0);
+        if (u == null)
+            return dir.scale(-1);
+
         // if the point is at the base of the cylinder
-        try {
-            t = dir.dotProduct(point.subtract(p0));
-            if (Util.isZero(t))
-                return dir.scale(-1);
-        } catch (IllegalArgumentException ignore) {
-            // the point is in the center of the base
+        double t = dir.dotProduct(u);
+        if (Util.isZero(t))
             return dir.scale(-1);
-        }
 
         // if the point is at the top of the cylinder
         if (Util.isZero(t - _height))
             return dir;
-        if (Util.isZero(dir.dotProduct(point.subtract(p0))))
-            return dir;
 
         return super.getNormal(point);
     }
@@ -0,0 +1,306 @@
+package geometries;
+
+import java.util.Arrays;
+
+import primitives.Ray;
+
+/**
+ * Bounding volume hierarchy stored in flat primitive arrays.
+ * The tree is built like {@link BVH}, then laid out in depth-first order: the
+ * first child of a node follows it directly, the boxes of all the nodes are kept
+ * in one {@code double[]} and the links in one {@code int[]}.
+ * A ray walks the arrays with an explicit stack instead of recursion, so the
+ * traversal reads memory sequentially and allocates nothing. The spheres and the triangles
+ * of each leaf are intersected in bulk (see {@link PrimitiveBlock}).
+ * This is the index of choice for large scenes that do not change after rendering starts.
+ * The boxes may be stored in single precision (see {@link Precision}) to halve their memory.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public class FlatBVH extends AccelerationStructure {
+    /** Number of array entries per node box */
+    private static final int BOX_SIZE = 6;
+
+    /** The precision of the stored boxes */
+    private Precision precision = Precision.DOUBLE;
+    /** The boxes of the nodes: minX, minY, minZ, maxX, maxY, maxZ of each node; null in single precision */
+    private double[] bounds = new double[0];
+    /** The boxes of the nodes rounded outwards, in single precision; null in double precision */
+    private float[] floatBounds = null;
+    /**
+     * Two entries per node. For a leaf: the index of its first shape and the number of
+     * its shapes. For an inner node: the index of its second child and 0.
+     */
+    private int[] links = new int[0];
+    /** The shapes and shape blocks, ordered so that the entries of each leaf are consecutive */
+    private Intersectable[] shapes = new Intersectable[0];
+    /** Depth of the tree, which bounds the size of the traversal stack */
+    private int depth = 0;
+
+    /** Per-thread traversal stacks */
+    private final ThreadLocal<Stack> stacks = ThreadLocal.withInitial(Stack::new);
+
+    /**
+     * Traversal stack of nodes postponed for later, with their entry distances
+     */
+    private static final class Stack {
+        int[] nodes = new int[0];
+        double[] distances = new double[0];
+
+        /**
+         * Makes sure the stack can hold a given number of nodes
+         *
+         * @param size the number of nodes
+         */
+        void ensure(int size) {
+            if (nodes.length < size) {
+                nodes = new int[size];
+                distances = new double[size];
+            }
+        }
+    }
+
+    /**
+     * default constructor
+     */
+    public FlatBVH() {
+        super();
+    }
+
+    /**
+     * construct a hierarchy with starting shapes
+     *
+     * @param geometries list of Intersectables the hierarchy will contain
+     */
+    public FlatBVH(Intersectable... geometries) {
+        super();
+        add(geometries);
+    }
+
+    /**
+     * Sets the precision in which the boxes are stored; the hierarchy is rebuilt on the next query
+     *
+     * @param precision the precision
+     * @return this hierarchy
+     */
+    public FlatBVH setPrecision(Precision precision) {
+        synchronized (this) {
+            this.precision = precision;
+            invalidate();
+        }
+        return this;
+    }
+
+    /**
+     * @return the precision in which the boxes are stored
+     */
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns the number of nodes, building the hierarchy if needed
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        ensureBuilt();
+        return links.length / 2;
+    }
+
+    @Override
+    protected void build(Intersectable[] shapes, BoundingBox[] boxes) {
+        BVH.Node root = BVH.buildTree(shapes, boxes);
+        int nodes = count(root);
+        bounds = new double[nodes * BOX_SIZE];
+        links = new int[nodes * 2];
+        this.shapes = new Intersectable[shapes.length];
+        depth = 0;
+        int[] next = new int[2];
+        if (root != null)
+            layout(root, next, 1);
+        // leaves keep their spheres and triangles in blocks, so there may be fewer entries than shapes
+        this.shapes = Arrays.copyOf(this.shapes, next[1]);
+        floatBounds = null;
+        if (precision == Precision.FLOAT) {
+            floatBounds = BoundingBox.roundOutwards(bounds);
+            bounds = null;
+        }
+    }
+
+    /**
+     * Counts the nodes of a subtree
+     *
+     * @param node the root of the subtree
+     * @return the number of nodes
+     */
+    private static int count(BVH.Node node) {
+        if (node == null)
+            return 0;
+        return node.shapes != null ? 1 : 1 + count(node.left) + count(node.right);
+    }
+
+    /**
+     * Writes a subtree into the arrays in depth-first order
+     *
+     * @param node  the root of the subtree
+     * @param next  the next free node index and the next free place in the shapes array,
+     *              advanced past the subtree
+     * @param level the depth of the node
+     * @return the index of the node
+     */
+    private int layout(BVH.Node node, int[] next, int level) {
+        depth = Math.max(depth, level);
+        int index = next[0]++;
+        BoundingBox box = node.box;
+        int b = index * BOX_SIZE;
+        bounds[b] = box.minX;
+        bounds[b + 1] = box.minY;
+        bounds[b + 2] = box.minZ;
+        bounds[b + 3] = box.maxX;
+        bounds[b + 4] = box.maxY;
+        bounds[b + 5] = box.maxZ;
+
+        if (node.shapes != null) {
+            System.arraycopy(node.shapes, 0, shapes, next[1], node.shapes.length);
+            links[2 * index] = next[1];
+            links[2 * index + 1] = node.shapes.length;
+            next[1] += node.shapes.length;
+        } else {
+            layout(node.left, next, level + 1);
+            links[2 * index] = layout(node.right, next, level + 1);
+            links[2 * index + 1] = 0;
+        }
+        return index;
+    }
+
+    @Override
+    protected double traverse(Ray ray, double maxDistance, ShapeVisitor visitor) {
+        if (links.length == 0)
+            return maxDistance;
+        double ox = ray.head.getX(), oy = ray.head.getY(), oz = ray.head.getZ();
+        double invX = 1 / ray.direction.getX(), invY = 1 / ray.direction.getY(), invZ = 1 / ray.direction.getZ();
+        if (enter(0, ox, oy, oz, invX, invY, invZ, maxDistance) == Double.POSITIVE_INFINITY)
+            return maxDistance;
+
+        Stack stack = stacks.get();
+        stack.ensure(depth);
+        int[] nodes = stack.nodes;
+        double[] distances = stack.distances;
+        int top = 0;
+        int node = 0;
+        while (true) {
+            int count = links[2 * node + 1];
+            if (count > 0) {
+                for (int i = links[2 * node], end = i + count; i < end; ++i) {
+                    maxDistance = visitor.visit(shapes[i], maxDistance);
+                    if (maxDistance == STOP)
+                        return STOP;
+                }
+                node = -1;
+            } else {
+                // visit the nearer child first and postpone the farther one
+                int near = node + 1, far = links[2 * node];
+                double tNear = enter(near, ox, oy, oz, invX, invY, invZ, maxDistance);
+                double tFar = enter(far, ox, oy, oz, invX, invY, invZ, maxDistance);
+                if (tFar < tNear) {
+                    int tmp = near;
+                    near = far;
+                    far = tmp;
+                    double t = tNear;
+                    tNear = tFar;
+                    tFar = t;
+                }
+                if (tFar != Double.POSITIVE_INFINITY) {
+                    nodes[top] = far;
+                    distances[top++] = tFar;
+                }
+                node = tNear != Double.POSITIVE_INFINITY ? near : -1;
+            }
+
+            // resume from the postponed nodes that still start within the distance;
+            // the negated comparison keeps a NaN entry distance (ray on a box face) conservative
+            while (node < 0) {
+                if (top == 0)
+                    return maxDistance;
+                --top;
+                if (!(distances[top] > maxDistance))
+                    node = nodes[top];
+            }
+        }
+    }
+
+    @Override
+    protected void traverse(RayPacket packet) {
+        if (links.length == 0 || enter(0, packet) == Double.POSITIVE_INFINITY)
+            return;
+        Stack stack = stacks.get();
+        stack.ensure(depth);
+        int[] nodes = stack.nodes;
+        int top = 0;
+        int node = 0;
+        while (true) {
+            int count = links[2 * node + 1];
+            if (count > 0) {
+                for (int i = links[2 * node], end = i + count; i < end; ++i)
+                    shapes[i].findClosestGeoIntersectionsHelper(packet);
+                node = -1;
+            } else {
+                // visit the child entered first by the packet and postpone the other one
+                int near = node + 1, far = links[2 * node];
+                double tNear = enter(near, packet), tFar = enter(far, packet);
+                if (tFar < tNear) {
+                    int tmp = near;
+                    near = far;
+                    far = tmp;
+                    double t = tNear;
+                    tNear = tFar;
+                    tFar = t;
+                }
+                if (tFar != Double.POSITIVE_INFINITY)
+                    nodes[top++] = far;
+                node = tNear != Double.POSITIVE_INFINITY ? near : -1;
+            }
+
+            // resume from the postponed nodes, tested again since the ranges may have shrunk
+            while (node < 0) {
+                if (top == 0)
+                    return;
+                --top;
+                if (enter(nodes[top], packet) != Double.POSITIVE_INFINITY)
+                    node = nodes[top];
+            }
+        }
+    }
+
+    /**
+     * Slab test of the rays of a packet against the box of a node
+     *
+     * @return the smallest distance at which a ray enters the box, or
+     *         {@link Double#POSITIVE_INFINITY} if all the rays miss it
+     */
+    private double enter(int node, RayPacket packet) {
+        int b = node * BOX_SIZE;
+        float[] floats = floatBounds;
+        if (floats != null)
+            return packet.enter(floats[b], floats[b + 1], floats[b + 2], floats[b + 3], floats[b + 4], floats[b + 5]);
+        return packet.enter(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4], bounds[b + 5]);
+    }
+
+    /**
+     * Slab test of the ray against the box of a node
+     *
+     * @return the distance at which the ray enters the box, or
+     *         {@link Double#POSITIVE_INFINITY} if it misses the box within range
+     */
+    private double enter(int node, double ox, double oy, double oz,
+                         double invX, double invY, double invZ, double maxDistance) {
+        int b = node * BOX_SIZE;
+        float[] floats = floatBounds;
+        if (floats != null)
+            return BoundingBox.intersect(floats[b], floats[b + 1], floats[b + 2], floats[b + 3], floats[b + 4],
+                    floats[b + 5], ox, oy, oz, invX, invY, invZ, maxDistance);
+        return BoundingBox.intersect(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4],
+                bounds[b + 5], ox, oy, oz, invX, invY, invZ, maxDistance);
+    }
+}
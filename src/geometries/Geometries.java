@@ -3,6 +3,7 @@ package geometries;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.function.Predicate;
 import primitives.Point;
 import primitives.Ray;
 
@@ -14,7 +15,10 @@ import primitives.Ray;
  */
 public class Geometries extends Intersectable {
 
-    final private List<Intersectable> shapes;
+    /** The intersectables contained in the collection */
+    protected final List<Intersectable> shapes;
+    /** The shapes grouped for bulk intersection, built on the first query after a change */
+    private volatile PrimitiveBlock block = null;
 
     /**
      * default constructor
@@ -29,7 +33,19 @@ public class Geometries extends Intersectable {
      * @param geometries list of Intersectables the shape will contain
      */
     public Geometries(Intersectable... geometries) {
-        shapes = List.of(geometries);
+        shapes = new LinkedList<>(List.of(geometries));
+    }
+
+    /**
+     * Counts the shapes in the collection, including the shapes of nested collections
+     *
+     * @return the number of shapes
+     */
+    public int size() {
+        int size = 0;
+        for (Intersectable shape : shapes)
+            size += shape instanceof Geometries nested ? nested.size() : 1;
+        return size;
     }
 
     /**
@@ -39,34 +55,118 @@ public class Geometries extends Intersectable {
      */
     public void add(Intersectable... geometries) {
         shapes.addAll(List.of(geometries));
+        block = null;
+    }
+
+    /**
+     * remove an Intersectable from the collection
+     *
+     * @param geometry the Intersectable to remove
+     * @return true if the collection contained it
+     */
+    public boolean remove(Intersectable geometry) {
+        if (!shapes.remove(geometry))
+            return false;
+        block = null;
+        return true;
+    }
+
+    /**
+     * replace an Intersectable of the collection by an edited version of it, in its place
+     *
+     * @param geometry    the Intersectable to replace
+     * @param replacement the Intersectable to put instead
+     * @return true if the collection contained the replaced Intersectable
+     */
+    public boolean replace(Intersectable geometry, Intersectable replacement) {
+        int index = shapes.indexOf(geometry);
+        if (index < 0)
+            return false;
+        shapes.set(index, replacement);
+        block = null;
+        return true;
+    }
+
+    /**
+     * Gets the shapes grouped for bulk intersection, grouping them if they changed
+     *
+     * @return the block of the shapes
+     */
+    private PrimitiveBlock block() {
+        PrimitiveBlock current = block;
+        if (current == null)
+            block = current = group();
+        return current;
+    }
+
+    /**
+     * Groups the shapes for bulk intersection, keeping their order
+     *
+     * @return the block of the shapes
+     */
+    PrimitiveBlock group() {
+        return new PrimitiveBlock(shapes.toArray(new Intersectable[0]));
     }
 
 
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        LinkedList<GeoPoint> intersections = null;
+    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        return block().findGeoIntersectionsHelper(ray, maxDistance);
+    }
+
+    /**
+     * The shapes are searched with a range that shrinks to the closest distance found so far,
+     * so farther shapes reject their points without constructing them. The spheres and the
+     * triangles are searched in bulk (see {@link PrimitiveBlock}).
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        return block().findClosestGeoIntersectionHelper(ray, maxDistance);
+    }
+
+    @Override
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet) {
+        block().findClosestGeoIntersectionsHelper(packet);
+    }
+
+    /**
+     * The search stops at the first shape whose intersections stopped the blocker.
+     */
+    @Override
+    protected boolean findAnyIntersectionHelper(Ray ray, double maxDistance, Predicate<Geometry> blocker) {
+        return block().findAnyIntersectionHelper(ray, maxDistance, blocker);
+    }
+
+    /**
+     * The box of a collection is the union of the boxes of its shapes. A collection
+     * containing any unbounded shape (or no shape at all) is unbounded.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = null;
+        for (Intersectable shape : shapes) {
+            BoundingBox shapeBox = shape.getBoundingBox();
+            if (shapeBox == null)
+                return null;
+            box = box == null ? shapeBox : box.union(shapeBox);
+        }
+        return box;
+    }
+
+    /**
+     * Appends the shapes of this collection to a list, replacing nested collections
+     * by their own shapes, so that acceleration structures are built over the actual
+     * geometries rather than over opaque groups.
+     *
+     * @param out the list to fill
+     */
+    void flatten(List<Intersectable> out) {
         for (Intersectable shape : shapes) {
-            List<GeoPoint> shapeIntersections = shape.findGeoIntersectionsHelper(ray);
-            if (shapeIntersections != null) {
-                if (intersections == null)
-                    intersections = new LinkedList<>();
-                intersections.addAll(shapeIntersections);
-            }
+            if (shape instanceof Geometries nested)
+                nested.flatten(out);
+            else
+                out.add(shape);
         }
-        return intersections;
     }
-//    @Override
-//    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
-//        LinkedList<GeoPoint> intersections = null;
-//        for (Intersectable shape : shapes) {
-//            List<GeoPoint> shapeIntersections = shape.findGeoIntersectionsHelper(ray, maxDistance);
-//            if (shapeIntersections != null) {
-//                if (intersections == null)
-//                    intersections = new LinkedList<>();
-//                intersections.addAll(shapeIntersections);
-//            }
-//        }
-//        return intersections;
-//    }
-
-}
\ No newline at end of file
+
+}
@@ -23,6 +23,19 @@ public abstract class Geometry extends Intersectable {
      */
     abstract public Vector getNormal(Point point);
 
+    /**
+     * Gets the normal vector to the geometry at a point of a known primitive of it.
+     * Geometries made of several primitives override it to skip finding the primitive
+     * the point lies on.
+     *
+     * @param point     A point on the surface of the geometry.
+     * @param primitive the index of the primitive the point lies on, -1 if unknown
+     * @return The normal vector to the geometry.
+     */
+    public Vector getNormal(Point point, int primitive) {
+        return getNormal(point);
+    }
+
     /**
      * getter for the color of the emission light
      * @return the color of the emission light
@@ -0,0 +1,50 @@
+package geometries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A plain collection whose shapes are split by their type into separate arrays.
+ * A list of mixed shapes makes the intersection call megamorphic, so the JIT inlines
+ * none of the intersection routines. Here the spheres and the triangles are intersected
+ * in bulk from arrays of their coordinates, and each other common type (planes, polygons)
+ * from a loop of its own, which sees a single type (see {@link PrimitiveBlock}).
+ * Nested collections are flattened when the arrays are built, like in the spatial
+ * indexes, so they must not be changed afterwards.
+ * <p>
+ * The shapes are tested by type rather than by the order they were added in, so the list of
+ * all the intersections is ordered by type. The closest intersection is the same as by
+ * {@link Geometries}: of shapes hit at the same distance, the one added first.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public class GeometryBuckets extends Geometries {
+
+    /**
+     * default constructor
+     */
+    public GeometryBuckets() {
+        super();
+    }
+
+    /**
+     * construct a collection with starting shapes
+     *
+     * @param geometries list of Intersectables the collection will contain
+     */
+    public GeometryBuckets(Intersectable... geometries) {
+        super(geometries);
+    }
+
+    @Override
+    PrimitiveBlock group() {
+        List<Intersectable> all = new ArrayList<>();
+        for (Intersectable shape : shapes) {
+            if (shape instanceof Geometries nested && !(nested instanceof AccelerationStructure))
+                nested.flatten(all);
+            else
+                all.add(shape);
+        }
+        return new PrimitiveBlock(all.toArray(new Intersectable[0]), true);
+    }
+}
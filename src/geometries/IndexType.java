@@ -0,0 +1,54 @@
+package geometries;
+
+/**
+ * The kinds of containers that can hold the geometries of a scene.
+ * A plain list suits a handful of shapes; the spatial indexes pay off as the
+ * scene grows, each on a different kind of scene.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public enum IndexType {
+    /** Plain list, every shape is tested for every ray */
+    LIST,
+    /** Plain list split by the type of the shapes, each type tested by its own loop */
+    BUCKETS,
+    /** Bounding volume hierarchy, good for scenes of uneven density */
+    BVH,
+    /** Uniform grid, good for dense, evenly spread scenes */
+    GRID,
+    /** Bounding volume hierarchy in flat arrays, good for large static scenes */
+    FLAT_BVH,
+    /** k-d tree, good for static scenes of many flat walls */
+    KD_TREE,
+    /** Dynamic octree, good for scenes edited between renders */
+    OCTREE;
+
+    /**
+     * Creates an empty container of this type
+     *
+     * @return the new container
+     */
+    public Geometries create() {
+        return switch (this) {
+            case LIST -> new Geometries();
+            case BUCKETS -> new GeometryBuckets();
+            case BVH -> new BVH();
+            case GRID -> new UniformGrid();
+            case FLAT_BVH -> new FlatBVH();
+            case KD_TREE -> new KDTree();
+            case OCTREE -> new Octree();
+        };
+    }
+
+    /**
+     * Creates a container of this type holding the same shapes as a given collection
+     *
+     * @param geometries the collection
+     * @return the new container
+     */
+    public Geometries copyOf(Geometries geometries) {
+        Geometries container = create();
+        container.add(geometries.shapes.toArray(new Intersectable[0]));
+        return container;
+    }
+}
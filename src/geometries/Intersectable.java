@@ -1,8 +1,10 @@
 package geometries;
 
 import java.util.List;
+import java.util.function.Predicate;
 import primitives.Point;
 import primitives.Ray;
+import primitives.Vector;
 
 public abstract class Intersectable {
     /**
@@ -18,29 +20,166 @@ public abstract class Intersectable {
 
 
 
+    /**
+     * find all GeoPoints that intersect with a ray
+     *
+     * @param ray to find intersections with
+     * @return list of intersection points
+     */
+    public List<GeoPoint> findGeoIntersections(Ray ray) {
+        return findGeoIntersectionsHelper(ray, Double.POSITIVE_INFINITY);
+    }
+
     /**
      * find all GeoPoints that intersect with a ray while ignoring the points that
      * are further than a given distance
      *
      * @param ray         to find intersections with
+     * @param maxDistance the maximum distance from the ray head
      * @return list of intersection points
      */
-    public List<GeoPoint> findGeoIntersections(Ray ray) {
-        return findGeoIntersectionsHelper(ray);
+    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+        return findGeoIntersectionsHelper(ray, maxDistance);
     }
 
     /**
      * Finds all intersection points between the given ray and the geometry up to a maximum distance.
      * This method is to be implemented by subclasses to provide the actual intersection logic.
+     * Points beyond the distance must be rejected before they are constructed.
      *
-     * @param ray the ray for which intersections are to be found.
+     * @param ray         the ray for which intersections are to be found.
+     * @param maxDistance the maximum distance from the ray head
      * @return a list of GeoPoint objects where the ray intersects the geometry within the specified distance, or null if there are no intersections.
      */
-    protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray);
+    protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance);
+
+    /**
+     * find the closest GeoPoint that intersects with a ray
+     *
+     * @param ray to find the intersection with
+     * @return the closest intersection point, or null if there is none
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersectionHelper(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * find the closest GeoPoint that intersects with a ray while ignoring the points
+     * that are further than a given distance
+     *
+     * @param ray         to find the intersection with
+     * @param maxDistance the maximum distance from the ray head
+     * @return the closest intersection point, or null if there is none in range
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        return findClosestGeoIntersectionHelper(ray, maxDistance);
+    }
+
+    /**
+     * Finds the closest intersection point between the given ray and the geometry up to a
+     * maximum distance. The returned GeoPoint carries its distance {@link GeoPoint#t}, so
+     * that collections can shrink the search range as they go.
+     * The default implementation scans the list of all the intersections; geometries
+     * override it to track the nearest distance without building any list.
+     *
+     * @param ray         the ray for which the intersection is to be found.
+     * @param maxDistance the maximum distance from the ray head
+     * @return the closest intersection point, or null if there is none in range
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        if (intersections == null)
+            return null;
+        GeoPoint closest = ray.findClosestGeoPoint(intersections);
+        return Double.isNaN(closest.t)
+                ? new GeoPoint(closest.geometry, closest.point, ray.head.distance(closest.point), closest.primitive)
+                : closest;
+    }
+
+    /**
+     * find the closest GeoPoint of each ray in a packet of coherent rays.
+     * The results are kept in the packet, see {@link RayPacket#getClosest(int)}
+     *
+     * @param packet the rays, each searched within the range of its closest hit so far
+     */
+    public void findClosestGeoIntersections(RayPacket packet) {
+        findClosestGeoIntersectionsHelper(packet);
+    }
+
+    /**
+     * Finds the closest intersection of each ray in a packet, within the range of the
+     * closest hit already recorded for the ray, and records it in the packet.
+     * The default implementation queries the rays one by one; geometries and
+     * acceleration structures override it to process all the rays together.
+     *
+     * @param packet the rays and their closest hits so far
+     */
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet) {
+        for (int i = 0; i < packet.size; ++i)
+            findClosestInLane(packet, i);
+    }
+
+    /**
+     * Finds the closest intersection of a single ray of a packet, with the single-ray
+     * query, and records it in the packet
+     *
+     * @param packet the rays and their closest hits so far
+     * @param lane   the index of the ray in the packet
+     */
+    protected final void findClosestInLane(RayPacket packet, int lane) {
+        GeoPoint gp = findClosestGeoIntersectionHelper(packet.rays[lane], packet.tMax[lane]);
+        if (gp != null)
+            packet.setClosest(lane, gp);
+    }
 
+    /**
+     * Any-hit query along a ray, used for occlusion (shadow rays). The intersections in range are
+     * reported one by one, in no particular order, to a blocker which decides whether the search
+     * can stop - e.g. as soon as an opaque geometry is found. No intersection point is constructed.
+     *
+     * @param ray         the ray to find intersections with
+     * @param maxDistance the maximum distance from the ray head
+     * @param blocker     called with the geometry of each intersection in range, returns true to stop
+     * @return true if the search was stopped by the blocker, false if all the intersections were reported
+     */
+    public boolean findAnyIntersection(Ray ray, double maxDistance, Predicate<Geometry> blocker) {
+        return findAnyIntersectionHelper(ray, maxDistance, blocker);
+    }
 
     /**
-     * this class represents a point and the geometry that contains the point
+     * Reports the intersections in range to a blocker until it asks to stop.
+     * The default implementation goes over the list of all the intersections; geometries override
+     * it to test their intersection distances without constructing any point.
+     *
+     * @param ray         the ray to find intersections with
+     * @param maxDistance the maximum distance from the ray head
+     * @param blocker     called with the geometry of each intersection in range, returns true to stop
+     * @return true if the search was stopped by the blocker, false if all the intersections were reported
+     */
+    protected boolean findAnyIntersectionHelper(Ray ray, double maxDistance, Predicate<Geometry> blocker) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        if (intersections != null)
+            for (GeoPoint gp : intersections)
+                if (blocker.test(gp.geometry))
+                    return true;
+        return false;
+    }
+
+    /**
+     * Returns the axis-aligned bounding box of the intersectable.
+     * Acceleration structures use it to skip geometries a ray cannot hit.
+     *
+     * @return the bounding box, or null if the intersectable is unbounded (e.g. a plane)
+     */
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
+
+
+    /**
+     * this class represents a point and the geometry that contains the point, with what
+     * the intersection already knows about it: its distance along the ray, the primitive
+     * of the geometry that was hit, and the normal once it is calculated
      *
      * @author Shulman and Yonatan
      *
@@ -54,6 +193,18 @@ public abstract class Intersectable {
          * the point
          */
         public Point point;
+        /**
+         * the distance of the point from the head of the ray that found it,
+         * NaN if it is unknown
+         */
+        public final double t;
+        /**
+         * the index of the primitive of the geometry that contains the point (e.g. the
+         * face of a mesh), -1 if the geometry is a single primitive
+         */
+        public final int primitive;
+        /** the normal at the point, calculated on first use */
+        private Vector normal = null;
 
         /**
          * constructs a GeoPoint with a point and the geometry that contains the point
@@ -62,8 +213,47 @@ public abstract class Intersectable {
          * @param point    the point
          */
         public GeoPoint(Geometry geometry, Point point) {
+            this(geometry, point, Double.NaN);
+        }
+
+        /**
+         * constructs a GeoPoint with a point, the geometry that contains the point and
+         * its distance from the head of the ray
+         *
+         * @param geometry the geometry that contains the point
+         * @param point    the point
+         * @param t        the distance of the point from the ray head
+         */
+        public GeoPoint(Geometry geometry, Point point, double t) {
+            this(geometry, point, t, -1);
+        }
+
+        /**
+         * constructs a GeoPoint with a point, the geometry that contains the point, its
+         * distance from the head of the ray and the primitive of the geometry it lies on
+         *
+         * @param geometry  the geometry that contains the point
+         * @param point     the point
+         * @param t         the distance of the point from the ray head
+         * @param primitive the index of the primitive of the geometry, -1 if none
+         */
+        public GeoPoint(Geometry geometry, Point point, double t, int primitive) {
             this.geometry = geometry;
             this.point = point;
+            this.t = t;
+            this.primitive = primitive;
+        }
+
+        /**
+         * Gets the normal of the geometry at the point, calculating it on the first call
+         * only, from the primitive that was hit if it is known
+         *
+         * @return the normal at the point
+         */
+        public Vector getNormal() {
+            if (normal == null)
+                normal = geometry.getNormal(point, primitive);
+            return normal;
         }
 
         @Override
@@ -0,0 +1,449 @@
+package geometries;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import primitives.Ray;
+
+/**
+ * k-d tree over a collection of geometries, built with the surface area heuristic (SAH).
+ * Space is split recursively by axis-aligned planes placed at the bounds of the shapes,
+ * and a shape is listed in every leaf its box overlaps. Unlike a hierarchy, the leaves
+ * do not overlap, so a ray visits them in order along its way and stops at the first
+ * leaf that ends beyond the closest hit found so far.
+ * The traversal needs neither a stack nor ropes between the leaves: after each leaf it
+ * restarts from the deepest node that contains the rest of the ray (kd-restart with
+ * push-down). This is the index of choice for static scenes of many flat, axis-aligned
+ * walls, which the split planes can wrap tightly.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public class KDTree extends AccelerationStructure {
+    /** Estimated cost of visiting an inner node */
+    private static final double TRAVERSAL_COST = 1;
+    /** Estimated cost of intersecting a single shape, relative to visiting a node */
+    private static final double INTERSECTION_COST = 2;
+    /** Cost reduction of a split that cuts off empty space */
+    private static final double EMPTY_BONUS = 0.2;
+    /** Relative slack on the distance where the ray leaves the tree, against rounding */
+    private static final double EXIT_TOLERANCE = 1 + 1e-12;
+    /** Axis value of a leaf node */
+    private static final int LEAF = 3;
+    /** Number of array entries per node in {@link #nodes} */
+    private static final int NODE_SIZE = 3;
+
+    /** The logger of the build report */
+    private static final Logger logger = Logger.getLogger("KDTree");
+
+    /** Whether to report the statistics of the tree after each build */
+    private boolean report = false;
+
+    /** Bounds of the tree */
+    private BoundingBox bounds;
+    /** The indexed shapes */
+    private Intersectable[] shapes = new Intersectable[0];
+    /**
+     * Three entries per node, in depth-first order: the split axis (0, 1 or 2) or {@link #LEAF}.
+     * For an inner node: the index of its second child (the first one follows it) and 0.
+     * For a leaf: the index of its first shape in {@link #leafShapes} and the number of its shapes.
+     */
+    private int[] nodes = new int[0];
+    /** The split coordinate of each inner node */
+    private double[] splits = new double[0];
+    /** The shape indices of all the leaves, one leaf after the other */
+    private int[] leafShapes = new int[0];
+    /** The number of nodes */
+    private int nodeCount = 0;
+    /** The number of entries in {@link #leafShapes} */
+    private int referenceCount = 0;
+    /** The statistics of the last build */
+    private Statistics statistics = new Statistics(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    /**
+     * Per-thread marks of the shapes already visited by the current ray.
+     * A shape may be listed in several leaves, and must be visited only once per ray.
+     */
+    private final ThreadLocal<Mailbox> mailbox = ThreadLocal.withInitial(Mailbox::new);
+
+    /**
+     * Statistics of a built tree, to tune the build and compare it with other indexes
+     *
+     * @param nodes            the number of nodes
+     * @param leaves           the number of leaves
+     * @param emptyLeaves      the number of leaves without shapes
+     * @param maxDepth         the depth of the deepest leaf, 1 for a root leaf
+     * @param averageLeafDepth the average depth of the non-empty leaves
+     * @param averageLeafSize  the average number of shapes in a non-empty leaf
+     * @param maxLeafSize      the number of shapes in the largest leaf
+     * @param references       the number of shape references in all the leaves
+     * @param buildMillis      the duration of the build in milliseconds
+     */
+    public record Statistics(int nodes, int leaves, int emptyLeaves, int maxDepth, double averageLeafDepth,
+                             double averageLeafSize, int maxLeafSize, int references, long buildMillis) {
+        @Override
+        public String toString() {
+            return String.format("k-d tree: %d nodes, %d leaves (%d empty), depth %d (average leaf depth %.1f), "
+                            + "%.2f shapes per leaf (max %d), %d references, built in %d ms",
+                    nodes, leaves, emptyLeaves, maxDepth, averageLeafDepth, averageLeafSize, maxLeafSize,
+                    references, buildMillis);
+        }
+    }
+
+    /**
+     * default constructor
+     */
+    public KDTree() {
+        super();
+    }
+
+    /**
+     * construct a tree with starting shapes
+     *
+     * @param geometries list of Intersectables the tree will contain
+     */
+    public KDTree(Intersectable... geometries) {
+        super();
+        add(geometries);
+    }
+
+    /**
+     * Sets whether the statistics of the tree are reported to the log after each build
+     *
+     * @param report true to report the statistics
+     * @return this object
+     */
+    public KDTree setReport(boolean report) {
+        this.report = report;
+        return this;
+    }
+
+    /**
+     * Returns the statistics of the tree, building it if needed
+     *
+     * @return the statistics
+     */
+    public Statistics getStatistics() {
+        ensureBuilt();
+        return statistics;
+    }
+
+    @Override
+    protected void build(Intersectable[] shapes, BoundingBox[] boxes) {
+        long start = System.nanoTime();
+        this.shapes = shapes;
+        nodeCount = 0;
+        referenceCount = 0;
+        nodes = new int[NODE_SIZE * Math.max(1, 2 * shapes.length)];
+        splits = new double[Math.max(1, 2 * shapes.length)];
+        leafShapes = new int[Math.max(1, 2 * shapes.length)];
+        if (shapes.length == 0) {
+            bounds = null;
+            statistics = new Statistics(0, 0, 0, 0, 0, 0, 0, 0, 0);
+            return;
+        }
+
+        BoundingBox box = boxes[0];
+        for (BoundingBox b : boxes)
+            box = box.union(b);
+        bounds = box;
+
+        Builder builder = new Builder(boxes);
+        int[] items = new int[shapes.length];
+        for (int i = 0; i < items.length; ++i)
+            items[i] = i;
+        int maxDepth = (int) Math.round(8 + 1.3 * Math.log(shapes.length) / Math.log(2));
+        builder.build(items, new double[]{box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ}, 1, maxDepth);
+
+        int leaves = builder.leaves - builder.emptyLeaves;
+        statistics = new Statistics(nodeCount, builder.leaves, builder.emptyLeaves, builder.maxDepth,
+                leaves == 0 ? 0 : (double) builder.depthSum / leaves,
+                leaves == 0 ? 0 : (double) referenceCount / leaves,
+                builder.maxLeafSize, referenceCount, (System.nanoTime() - start) / 1_000_000);
+        if (report)
+            logger.info(statistics.toString());
+    }
+
+    /**
+     * Recursive SAH build of the node arrays, with the counters of the statistics
+     */
+    private final class Builder {
+        /** The bounds of the shapes, six entries per shape */
+        private final double[] shapeBounds;
+        /** Statistics counters */
+        int leaves = 0, emptyLeaves = 0, maxDepth = 0, maxLeafSize = 0;
+        /** Sum of the depths of the non-empty leaves */
+        long depthSum = 0;
+
+        /**
+         * @param boxes the bounding boxes of the shapes
+         */
+        Builder(BoundingBox[] boxes) {
+            shapeBounds = new double[6 * boxes.length];
+            for (int i = 0; i < boxes.length; ++i) {
+                BoundingBox b = boxes[i];
+                int s = 6 * i;
+                shapeBounds[s] = b.minX;
+                shapeBounds[s + 1] = b.minY;
+                shapeBounds[s + 2] = b.minZ;
+                shapeBounds[s + 3] = b.maxX;
+                shapeBounds[s + 4] = b.maxY;
+                shapeBounds[s + 5] = b.maxZ;
+            }
+        }
+
+        /**
+         * Builds the subtree of a node, in depth-first order
+         *
+         * @param items    the indices of the shapes overlapping the node
+         * @param box      the node bounds: minX, minY, minZ, maxX, maxY, maxZ
+         * @param level    the depth of the node
+         * @param maxLevel the depth at which nodes become leaves anyway
+         * @return the index of the node
+         */
+        int build(int[] items, double[] box, int level, int maxLevel) {
+            int node = nodeCount++;
+            ensureNodes(nodeCount);
+            int n = items.length;
+
+            // find the split plane of the lowest cost, if any is cheaper than a leaf
+            int bestAxis = -1;
+            double bestSplit = 0, bestCost = INTERSECTION_COST * n;
+            double area = area(box[3] - box[0], box[4] - box[1], box[5] - box[2]);
+            if (level < maxLevel && n > 0 && area > 0) {
+                double[] mins = new double[n], maxs = new double[n], flats = new double[n];
+                double[] candidates = new double[2 * n];
+                for (int axis = 0; axis < 3; ++axis) {
+                    double lo = box[axis], hi = box[axis + 3];
+                    if (hi <= lo)
+                        continue;
+                    int flatCount = 0;
+                    for (int i = 0; i < n; ++i) {
+                        int s = 6 * items[i];
+                        mins[i] = Math.max(shapeBounds[s + axis], lo);
+                        maxs[i] = Math.min(shapeBounds[s + axis + 3], hi);
+                        if (mins[i] == maxs[i])
+                            flats[flatCount++] = mins[i];
+                        candidates[2 * i] = mins[i];
+                        candidates[2 * i + 1] = maxs[i];
+                    }
+                    Arrays.sort(mins);
+                    Arrays.sort(maxs);
+                    Arrays.sort(flats, 0, flatCount);
+                    Arrays.sort(candidates);
+
+                    double a = box[(axis + 1) % 3 + 3] - box[(axis + 1) % 3];
+                    double b = box[(axis + 2) % 3 + 3] - box[(axis + 2) % 3];
+                    // sweep the distinct candidates inside the node, counting the shapes of each side:
+                    // left if they start before the plane or lie flat on it, right if they end after it
+                    int below = 0, ending = 0, flatBelow = 0;
+                    for (int c = 0; c < candidates.length; ++c) {
+                        double p = candidates[c];
+                        if (p <= lo || p >= hi || (c > 0 && p == candidates[c - 1]))
+                            continue;
+                        while (below < n && mins[below] < p)
+                            ++below;
+                        while (ending < n && maxs[ending] <= p)
+                            ++ending;
+                        while (flatBelow < flatCount && flats[flatBelow] < p)
+                            ++flatBelow;
+                        int flatAt = flatBelow;
+                        while (flatAt < flatCount && flats[flatAt] == p)
+                            ++flatAt;
+                        int nLeft = below + flatAt - flatBelow, nRight = n - ending;
+                        if (nLeft == n && nRight == n)
+                            continue;
+                        double cost = TRAVERSAL_COST + INTERSECTION_COST
+                                * (area(p - lo, a, b) * nLeft + area(hi - p, a, b) * nRight) / area;
+                        if (nLeft == 0 || nRight == 0)
+                            cost *= 1 - EMPTY_BONUS;
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            bestAxis = axis;
+                            bestSplit = p;
+                        }
+                    }
+                }
+            }
+
+            if (bestAxis < 0) {
+                makeLeaf(node, items, level);
+                return node;
+            }
+
+            // distribute the shapes between the children
+            int[] left = new int[n], right = new int[n];
+            int nLeft = 0, nRight = 0;
+            for (int item : items) {
+                double min = shapeBounds[6 * item + bestAxis], max = shapeBounds[6 * item + bestAxis + 3];
+                if (min < bestSplit || (min == bestSplit && max == bestSplit))
+                    left[nLeft++] = item;
+                if (max > bestSplit)
+                    right[nRight++] = item;
+            }
+            double[] leftBox = box.clone(), rightBox = box.clone();
+            leftBox[bestAxis + 3] = bestSplit;
+            rightBox[bestAxis] = bestSplit;
+
+            nodes[NODE_SIZE * node] = bestAxis;
+            splits[node] = bestSplit;
+            build(Arrays.copyOf(left, nLeft), leftBox, level + 1, maxLevel);
+            int second = build(Arrays.copyOf(right, nRight), rightBox, level + 1, maxLevel);
+            nodes[NODE_SIZE * node + 1] = second;
+            nodes[NODE_SIZE * node + 2] = 0;
+            return node;
+        }
+
+        /**
+         * Writes a leaf node and counts it in the statistics
+         *
+         * @param node  the index of the node
+         * @param items the indices of its shapes
+         * @param level the depth of the node
+         */
+        private void makeLeaf(int node, int[] items, int level) {
+            if (leafShapes.length < referenceCount + items.length)
+                leafShapes = Arrays.copyOf(leafShapes, Math.max(2 * leafShapes.length, referenceCount + items.length));
+            System.arraycopy(items, 0, leafShapes, referenceCount, items.length);
+            nodes[NODE_SIZE * node] = LEAF;
+            nodes[NODE_SIZE * node + 1] = referenceCount;
+            nodes[NODE_SIZE * node + 2] = items.length;
+            referenceCount += items.length;
+
+            ++leaves;
+            maxDepth = Math.max(maxDepth, level);
+            if (items.length == 0)
+                ++emptyLeaves;
+            else {
+                depthSum += level;
+                maxLeafSize = Math.max(maxLeafSize, items.length);
+            }
+        }
+
+        /**
+         * Makes sure the node arrays can hold a given number of nodes
+         *
+         * @param count the number of nodes
+         */
+        private void ensureNodes(int count) {
+            if (splits.length < count) {
+                splits = Arrays.copyOf(splits, 2 * count);
+                nodes = Arrays.copyOf(nodes, NODE_SIZE * 2 * count);
+            }
+        }
+    }
+
+    /**
+     * Calculates the surface area of a box by its extents
+     */
+    private static double area(double a, double b, double c) {
+        return 2 * (a * b + b * c + c * a);
+    }
+
+    @Override
+    protected double traverse(Ray ray, double maxDistance, ShapeVisitor visitor) {
+        if (bounds == null)
+            return maxDistance;
+        Probe probe = new Probe(ray);
+        double tMin = probe.enter(bounds, maxDistance);
+        if (tMin == Double.POSITIVE_INFINITY)
+            return maxDistance;
+        if (Double.isNaN(tMin))
+            tMin = 0;
+        double tMax = exit(bounds.minX, bounds.maxX, probe.ox, probe.invX, Double.POSITIVE_INFINITY);
+        tMax = exit(bounds.minY, bounds.maxY, probe.oy, probe.invY, tMax);
+        tMax = exit(bounds.minZ, bounds.maxZ, probe.oz, probe.invZ, tMax);
+        tMax = Math.min(tMax * EXIT_TOLERANCE, maxDistance);
+
+        Mailbox visited = mailbox.get();
+        visited.next(shapes.length);
+        return traverse(0, tMin, tMax, probe, maxDistance, visitor, visited);
+    }
+
+    /**
+     * Calculates the distance at which the ray leaves the slab of the bounds along an axis
+     *
+     * @param min  the lower bound along the axis
+     * @param max  the upper bound along the axis
+     * @param o    the ray head coordinate
+     * @param inv  the inverse of the ray direction coordinate
+     * @param tMax the distance at which the ray leaves the slabs of the other axes
+     * @return the distance at which the ray leaves all the slabs so far
+     */
+    private static double exit(double min, double max, double o, double inv, double tMax) {
+        double t = Math.max((min - o) * inv, (max - o) * inv);
+        // a NaN distance (ray on a slab face) does not limit the range
+        return t < tMax ? t : tMax;
+    }
+
+    /**
+     * Visits the leaves of a subtree along a segment of the ray, in order, without a stack.
+     * Each descent goes down to the first leaf on the remaining segment; once the leaf is
+     * done, the segment is advanced past it and the descent restarts from the deepest node
+     * whose part of the ray contains all the remaining segment. The walk stops as soon as
+     * the closest hit lies within the leaves already visited.
+     *
+     * @param root        the root of the subtree
+     * @param tMin        the distance at which the segment starts
+     * @param tMax        the distance at which the segment ends
+     * @param probe       the ray and its slab test data
+     * @param maxDistance the maximum distance from the ray head
+     * @param visitor     the visitor of the shapes
+     * @param visited     the marks of the shapes already visited by the ray
+     * @return the final maximum distance, or {@link #STOP} if the visitor stopped the traversal
+     */
+    private double traverse(int root, double tMin, double tMax, Probe probe, double maxDistance,
+                            ShapeVisitor visitor, Mailbox visited) {
+        int restart = root;
+        while (true) {
+            int node = restart;
+            double tEnd = tMax;
+            boolean pushDown = true;
+            while (nodes[NODE_SIZE * node] != LEAF) {
+                int axis = nodes[NODE_SIZE * node];
+                double o = axis == 0 ? probe.ox : axis == 1 ? probe.oy : probe.oz;
+                double inv = axis == 0 ? probe.invX : axis == 1 ? probe.invY : probe.invZ;
+                double split = splits[node];
+                double tSplit = (split - o) * inv;
+                int first = node + 1, second = nodes[NODE_SIZE * node + 1];
+                if (o > split || (o == split && inv < 0)) {
+                    first = second;
+                    second = node + 1;
+                }
+
+                if (Double.isNaN(tSplit)) {
+                    // the ray lies in the split plane, and may hit shapes of both sides
+                    maxDistance = traverse(first, tMin, tEnd, probe, maxDistance, visitor, visited);
+                    if (maxDistance == STOP)
+                        return STOP;
+                    node = second;
+                    pushDown = false;
+                } else if (tSplit < 0 || tSplit > tEnd)
+                    node = first;
+                else if (tSplit <= tMin)
+                    node = second;
+                else {
+                    node = first;
+                    tEnd = tSplit;
+                    pushDown = false;
+                }
+                if (pushDown)
+                    restart = node;
+            }
+
+            int start = nodes[NODE_SIZE * node + 1];
+            for (int i = start, end = start + nodes[NODE_SIZE * node + 2]; i < end; ++i) {
+                int shape = leafShapes[i];
+                if (visited.mark(shape)) {
+                    maxDistance = visitor.visit(shapes[shape], maxDistance);
+                    if (maxDistance == STOP)
+                        return STOP;
+                }
+            }
+
+            // the leaves are visited in order, so a hit within this leaf is the closest one
+            if (tEnd >= tMax || maxDistance <= tEnd)
+                return maxDistance;
+            tMin = tEnd;
+        }
+    }
+}
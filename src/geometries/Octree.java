@@ -0,0 +1,375 @@
+package geometries;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import primitives.Ray;
+
+/**
+ * Dynamic loose octree over a collection of geometries, for scenes that are edited
+ * between renders.
+ * Each shape is kept in a single node: the deepest one whose loose box (the cube of
+ * the node grown to twice its size around its center) contains the shape. Adding,
+ * removing or replacing a shape therefore touches only the nodes along one path
+ * from the root, in logarithmic time, and the next render needs no rebuild.
+ * A node is split when it holds too many shapes and merged back into its parent when
+ * its subtree becomes small, and the root grows to take in shapes outside of it.
+ * Rays are tested against the tight bounds of the shapes of each subtree, which are
+ * refitted along the same path on every edit.
+ * Edits must not run concurrently with queries.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public class Octree extends AccelerationStructure {
+    /** A node holding more shapes than this is split, unless it is too deep */
+    private static final int MAX_NODE_SIZE = 8;
+    /** Nodes at this depth are not split any further */
+    private static final int MAX_DEPTH = 16;
+
+    /** The root of the tree, null if there are no bounded shapes */
+    private Node root;
+    /** The node holding each shape */
+    private final Map<Intersectable, Node> locations = new IdentityHashMap<>();
+
+    /**
+     * A cubic node of the tree
+     */
+    private static final class Node {
+        /** The center of the node */
+        final double x, y, z;
+        /** Half the edge of the node; the loose box extends twice as far from the center */
+        final double half;
+        /** The loose box of the node, which contains all the shapes of its subtree */
+        final BoundingBox box;
+        /** The tight bounds of the shapes of the subtree, null if it has no shapes */
+        BoundingBox bounds;
+        /** The parent node, null for the root */
+        Node parent;
+        /** The index of the node among the children of its parent */
+        int octant;
+        /** The children by octant, null for a leaf; a child without shapes is null as well */
+        Node[] children;
+        /** The shapes held by the node itself */
+        final List<Intersectable> shapes = new ArrayList<>();
+        /** The bounding boxes of the shapes held by the node, by the same order */
+        final List<BoundingBox> boxes = new ArrayList<>();
+        /** The number of shapes in the subtree */
+        int count = 0;
+
+        Node(double x, double y, double z, double half) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.half = half;
+            double loose = 2 * half;
+            box = new BoundingBox(x - loose, y - loose, z - loose, x + loose, y + loose, z + loose);
+        }
+
+        /**
+         * Finds the octant of the node that contains the center of a box
+         *
+         * @param b the box
+         * @return the octant: bit 0 for the upper x half, bit 1 for y and bit 2 for z
+         */
+        int octant(BoundingBox b) {
+            return (b.minX + b.maxX >= 2 * x ? 1 : 0) | (b.minY + b.maxY >= 2 * y ? 2 : 0)
+                    | (b.minZ + b.maxZ >= 2 * z ? 4 : 0);
+        }
+
+        /**
+         * Creates a child node
+         *
+         * @param octant the octant of the child
+         * @return the child
+         */
+        Node child(int octant) {
+            double quarter = half / 2;
+            Node child = new Node(x + ((octant & 1) != 0 ? quarter : -quarter),
+                    y + ((octant & 2) != 0 ? quarter : -quarter),
+                    z + ((octant & 4) != 0 ? quarter : -quarter), quarter);
+            child.parent = this;
+            child.octant = octant;
+            return child;
+        }
+
+        /**
+         * Adds a shape to the shapes held by the node
+         *
+         * @param shape the shape
+         * @param b     its bounding box
+         */
+        void add(Intersectable shape, BoundingBox b) {
+            shapes.add(shape);
+            boxes.add(b);
+        }
+
+        /**
+         * Recalculates the tight bounds from the shapes of the node and the bounds of its children
+         */
+        void refit() {
+            bounds = null;
+            for (BoundingBox b : boxes)
+                bounds = bounds == null ? b : bounds.union(b);
+            if (children != null)
+                for (Node child : children)
+                    if (child != null && child.bounds != null)
+                        bounds = bounds == null ? child.bounds : bounds.union(child.bounds);
+        }
+
+        /**
+         * Checks whether the loose box of the node contains a box
+         *
+         * @param b the box
+         * @return true if b is inside the loose box
+         */
+        boolean contains(BoundingBox b) {
+            return b.minX >= box.minX && b.maxX <= box.maxX && b.minY >= box.minY && b.maxY <= box.maxY
+                    && b.minZ >= box.minZ && b.maxZ <= box.maxZ;
+        }
+    }
+
+    /**
+     * default constructor
+     */
+    public Octree() {
+        super();
+    }
+
+    /**
+     * construct a tree with starting shapes
+     *
+     * @param geometries list of Intersectables the tree will contain
+     */
+    public Octree(Intersectable... geometries) {
+        super();
+        add(geometries);
+    }
+
+    /**
+     * Returns the number of nodes, building the tree if needed
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        ensureBuilt();
+        return count(root);
+    }
+
+    /**
+     * Counts the nodes of a subtree
+     *
+     * @param node the root of the subtree
+     * @return the number of nodes
+     */
+    private static int count(Node node) {
+        if (node == null)
+            return 0;
+        int count = 1;
+        if (node.children != null)
+            for (Node child : node.children)
+                count += count(child);
+        return count;
+    }
+
+    @Override
+    protected void build(Intersectable[] shapes, BoundingBox[] boxes) {
+        root = null;
+        locations.clear();
+        if (shapes.length == 0)
+            return;
+        BoundingBox bounds = boxes[0];
+        for (BoundingBox b : boxes)
+            bounds = bounds.union(b);
+        root = new Node(bounds.center(0), bounds.center(1), bounds.center(2), half(bounds));
+        for (int i = 0; i < shapes.length; ++i)
+            insert(shapes[i], boxes[i]);
+    }
+
+    /**
+     * Calculates the half edge of a cube enclosing a box around its center
+     *
+     * @param box the box
+     * @return the half edge, positive even for a flat box
+     */
+    private static double half(BoundingBox box) {
+        double half = Math.max(box.maxX - box.minX, Math.max(box.maxY - box.minY, box.maxZ - box.minZ)) / 2;
+        return half > 0 ? half : 1;
+    }
+
+    @Override
+    protected boolean insert(Intersectable shape, BoundingBox box) {
+        if (root == null)
+            root = new Node(box.center(0), box.center(1), box.center(2), half(box));
+        // grow the root towards the shape until it fits
+        while (!root.contains(box)) {
+            int octant = root.octant(box) ^ 7;
+            Node grown = new Node(root.x + ((octant & 1) != 0 ? -root.half : root.half),
+                    root.y + ((octant & 2) != 0 ? -root.half : root.half),
+                    root.z + ((octant & 4) != 0 ? -root.half : root.half), 2 * root.half);
+            if (root.count > 0) {
+                grown.children = new Node[8];
+                grown.children[octant] = root;
+                grown.count = root.count;
+                grown.bounds = root.bounds;
+                root.parent = grown;
+                root.octant = octant;
+            }
+            root = grown;
+        }
+
+        // go down to the deepest existing node that contains the shape
+        Node node = root;
+        int depth = 1;
+        Node existing = locations.get(shape);
+        if (existing != null)
+            node = existing; // another copy of the shape, kept beside it
+        else
+            while (node.children != null) {
+                int octant = node.octant(box);
+                Node child = node.children[octant];
+                if (child == null) {
+                    child = node.child(octant);
+                    if (!child.contains(box))
+                        break;
+                    node.children[octant] = child;
+                } else if (!child.contains(box))
+                    break;
+                node = child;
+                ++depth;
+            }
+
+        node.add(shape, box);
+        locations.put(shape, node);
+        for (Node n = node; n != null; n = n.parent) {
+            ++n.count;
+            n.bounds = n.bounds == null ? box : n.bounds.union(box);
+        }
+        if (node.children == null && node.shapes.size() > MAX_NODE_SIZE && depth < MAX_DEPTH)
+            split(node, depth);
+        return true;
+    }
+
+    /**
+     * Moves the shapes of a leaf down into new children, where they fit
+     *
+     * @param node  the leaf
+     * @param depth the depth of the leaf
+     */
+    private void split(Node node, int depth) {
+        node.children = new Node[8];
+        List<Intersectable> shapes = new ArrayList<>(node.shapes);
+        List<BoundingBox> boxes = new ArrayList<>(node.boxes);
+        node.shapes.clear();
+        node.boxes.clear();
+        for (int i = 0; i < shapes.size(); ++i) {
+            Intersectable shape = shapes.get(i);
+            BoundingBox box = boxes.get(i);
+            int octant = node.octant(box);
+            Node child = node.children[octant];
+            if (child == null)
+                child = node.child(octant);
+            if (child.contains(box)) {
+                node.children[octant] = child;
+                child.add(shape, box);
+                ++child.count;
+                child.bounds = child.bounds == null ? box : child.bounds.union(box);
+                locations.put(shape, child);
+            } else
+                node.add(shape, box);
+        }
+        for (Node child : node.children)
+            if (child != null && child.shapes.size() > MAX_NODE_SIZE && depth + 1 < MAX_DEPTH)
+                split(child, depth + 1);
+    }
+
+    @Override
+    protected boolean delete(Intersectable shape, BoundingBox box) {
+        Node node = locations.get(shape);
+        if (node == null)
+            return false;
+        int index = node.shapes.indexOf(shape);
+        node.shapes.remove(index);
+        node.boxes.remove(index);
+        if (!node.shapes.contains(shape))
+            locations.remove(shape);
+        for (Node n = node; n != null; n = n.parent)
+            --n.count;
+
+        // detach empty subtrees, and merge the highest small subtree into its root
+        Node merge = null;
+        for (Node n = node; n != null; n = n.parent) {
+            if (n.count == 0 && n.parent != null)
+                n.parent.children[n.octant] = null;
+            else if (n.children != null && n.count <= MAX_NODE_SIZE)
+                merge = n;
+        }
+        if (merge != null)
+            merge(merge, merge);
+        for (Node n = node; n != null; n = n.parent)
+            n.refit();
+        if (root.count == 0)
+            root = null;
+        return true;
+    }
+
+    /**
+     * Moves all the shapes of a subtree up into a node, which becomes a leaf
+     *
+     * @param target the node receiving the shapes
+     * @param node   the root of the subtree whose shapes are moved
+     */
+    private void merge(Node target, Node node) {
+        if (node != target)
+            for (int i = 0; i < node.shapes.size(); ++i) {
+                target.add(node.shapes.get(i), node.boxes.get(i));
+                locations.put(node.shapes.get(i), target);
+            }
+        if (node.children != null)
+            for (Node child : node.children)
+                if (child != null)
+                    merge(target, child);
+        node.children = null;
+    }
+
+    @Override
+    protected double traverse(Ray ray, double maxDistance, ShapeVisitor visitor) {
+        if (root == null)
+            return maxDistance;
+        Probe probe = new Probe(ray);
+        // visit the children in the order the ray direction passes through the octants
+        int order = (probe.invX < 0 ? 1 : 0) | (probe.invY < 0 ? 2 : 0) | (probe.invZ < 0 ? 4 : 0);
+        return traverse(root, probe, order, maxDistance, visitor);
+    }
+
+    /**
+     * Recursively visits the shapes of a subtree whose bounds are hit by the ray
+     *
+     * @param node        the root of the subtree
+     * @param probe       the ray and its slab test data
+     * @param order       the octant mask giving the front-to-back order of the children
+     * @param maxDistance the maximum distance from the ray head
+     * @param visitor     the visitor of the shapes
+     * @return the final maximum distance, or {@link #STOP} if the visitor stopped the traversal
+     */
+    private double traverse(Node node, Probe probe, int order, double maxDistance, ShapeVisitor visitor) {
+        if (probe.enter(node.bounds, maxDistance) == Double.POSITIVE_INFINITY)
+            return maxDistance;
+        for (Intersectable shape : node.shapes) {
+            maxDistance = visitor.visit(shape, maxDistance);
+            if (maxDistance == STOP)
+                return STOP;
+        }
+        if (node.children != null)
+            for (int i = 0; i < 8; ++i) {
+                Node child = node.children[i ^ order];
+                if (child != null) {
+                    maxDistance = traverse(child, probe, order, maxDistance, visitor);
+                    if (maxDistance == STOP)
+                        return STOP;
+                }
+            }
+        return maxDistance;
+    }
+}
@@ -1,9 +1,11 @@
 package geometries;
 import java.util.List;
+import java.util.function.Predicate;
 import primitives.Vector;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Util;
+import primitives.VectorMath;
 /**
  * Represents a plane in three-dimensional space.
  *  *  * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
@@ -55,36 +57,89 @@ public class Plane extends Geometry {
             return normal;
     }
 
+    /**
+     * Gets the point that defines the plane
+     * @return The point on the plane.
+     */
+    Point getPoint() {
+            return p;
+    }
 
-    /**Finds the intersection-geoPoints between a ray and the plane represented by this object.
-     @param myRay The ray to intersect with the plane.
-     @return A list of GeoPoints representing the intersection-geoPoints between the ray and the plane**/
-    @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray myRay) {
-        double nv = normal.dotProduct(myRay.direction);
+
+    /**Calculates the distance along a ray to its intersection with the plane represented by this object.
+     @param ray The ray to intersect with the plane.
+     @param maxDistance the maximum distance from the ray head
+     @return the distance of the intersection from the ray head, or 0 if there is no intersection in range**/
+    double findIntersectionDistance(Ray ray, double maxDistance) {
+        Point head = ray.head;
+        return findIntersectionDistance(head.getX(), head.getY(), head.getZ(),
+                ray.direction.getX(), ray.direction.getY(), ray.direction.getZ(), maxDistance);
+    }
+
+    /**Calculates the distance along a ray, given by the coordinates of its head and direction,
+     to its intersection with the plane represented by this object.
+     @param maxDistance the maximum distance from the ray head
+     @return the distance of the intersection from the ray head, or 0 if there is no intersection in range**/
+    double findIntersectionDistance(double ox, double oy, double oz, double dx, double dy, double dz,
+                                    double maxDistance) {
+        double nv = VectorMath.dot(normal.getX(), normal.getY(), normal.getZ(), dx, dy, dz);
         //The plane is parallel to the ray
         if (Util.isZero(nv))
         {
-            return null;
+            return 0;
         }
 
-        try
+        double qx = p.getX() - ox, qy = p.getY() - oy, qz = p.getZ() - oz;
+        //The ray starts at the point of the plane
+        if (VectorMath.isZero(qx, qy, qz))
         {
-            Vector qSubtractP0 = p.subtract(myRay.head);
-            double t = Util.alignZero((normal.dotProduct(qSubtractP0))/nv);
+            return 0;
+        }
 
-            if(t <= 0)//no intersections-the ray goes to the opposite side
-            {
-                return null;
-            }
+        double t = Util.alignZero(VectorMath.dot(normal.getX(), normal.getY(), normal.getZ(), qx, qy, qz) / nv);
 
-            return List.of(new GeoPoint(this,myRay.getPoint(t)));
+        if(t <= 0)//no intersections-the ray goes to the opposite side
+        {
+            return 0;
         }
-        catch(Exception ex)
+
+        if(Util.alignZero(t - maxDistance) > 0)//the intersection is too far
         {
-            return null;
+            return 0;
         }
+
+        return t;
     }
 
+    /**Finds the intersection-geoPoints between a ray and the plane represented by this object.
+     @param myRay The ray to intersect with the plane.
+     @param maxDistance the maximum distance from the ray head
+     @return A list of GeoPoints representing the intersection-geoPoints between the ray and the plane**/
+    @Override
+    public List<GeoPoint> findGeoIntersectionsHelper(Ray myRay, double maxDistance) {
+        double t = findIntersectionDistance(myRay, maxDistance);
+        return t == 0 ? null : List.of(new GeoPoint(this,myRay.getPoint(t),t));
+    }
+
+    /**Finds the closest intersection-geoPoint between a ray and the plane represented by this object.
+     @param ray The ray to intersect with the plane.
+     @param maxDistance the maximum distance from the ray head
+     @return the intersection-geoPoint, or null if there is none in range**/
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray, maxDistance);
+        return t == 0 ? null : new GeoPoint(this, ray.getPoint(t), t);
+    }
+
+    /**Reports the intersection between a ray and the plane represented by this object to a blocker,
+     without constructing the intersection point.
+     @param ray The ray to intersect with the plane.
+     @param maxDistance the maximum distance from the ray head
+     @param blocker called for the intersection if it is in range, returns true to stop
+     @return true if the blocker asked to stop**/
+    @Override
+    protected boolean findAnyIntersectionHelper(Ray ray, double maxDistance, Predicate<Geometry> blocker) {
+        return findIntersectionDistance(ray, maxDistance) != 0 && blocker.test(this);
+    }
 
 }
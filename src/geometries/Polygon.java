@@ -1,6 +1,7 @@
 package geometries;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 import static primitives.Util.isZero;
 
@@ -8,6 +9,7 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Util;
 import primitives.Vector;
+import primitives.VectorMath;
 
 /**
  * Polygon class represents two-dimensional polygon in 3D Cartesian coordinate
@@ -20,6 +22,17 @@ public class Polygon extends Geometry {
     /** Associated plane in which the polygon lays */
     protected final Plane plane;
     private final int size;
+    /** The bounding box of the polygon */
+    private final BoundingBox box;
+    /** The first vertex, shared by all the triangles of the fan */
+    final double ax, ay, az;
+    /**
+     * The triangles of the fan from the first vertex (the first, i+1-th and i+2-th
+     * vertices), 6 values for each: the dual vectors of its edges from the first vertex,
+     * which give the barycentric coordinates of a point by a dot product with the vector
+     * from the first vertex to the point
+     */
+    final double[] fan;
 
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -47,11 +60,18 @@ public class Polygon extends Geometry {
             throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
         this.vertices = List.of(vertices);
         size = vertices.length;
+        box = BoundingBox.of(vertices);
+        ax = vertices[0].getX();
+        ay = vertices[0].getY();
+        az = vertices[0].getZ();
 
         // Generate the plane according to the first three vertices and associate the
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane = new Plane(vertices[0], vertices[1], vertices[2]);
+        fan = new double[6 * (size - 2)];
+        for (int i = 0; i < size - 2; ++i)
+            setFanTriangle(i, vertices[i + 1], vertices[i + 2]);
         if (size == 3)
             return; // no need for more tests for a Triangle
 
@@ -88,48 +108,131 @@ public class Polygon extends Geometry {
         return plane.getNormal();
     }
 
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+
+    /**
+     * Calculates the dual vectors of the edges of a triangle of the fan: for the edges
+     * e1 = b - a and e2 = c - a and the normal n = e1 × e2, they are (e2 × n) / |n|² and
+     * (n × e1) / |n|², so that a point a + u·e1 + v·e2 has the barycentric coordinates
+     * u and v.
+     *
+     * @param i the index of the triangle
+     * @param b the second vertex of the triangle
+     * @param c the third vertex of the triangle
+     */
+    private void setFanTriangle(int i, Point b, Point c) {
+        double e1x = b.getX() - ax, e1y = b.getY() - ay, e1z = b.getZ() - az;
+        double e2x = c.getX() - ax, e2y = c.getY() - ay, e2z = c.getZ() - az;
+        double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+        double n2 = VectorMath.lengthSquared(nx, ny, nz);
+        int j = 6 * i;
+        fan[j] = (e2y * nz - e2z * ny) / n2;
+        fan[j + 1] = (e2z * nx - e2x * nz) / n2;
+        fan[j + 2] = (e2x * ny - e2y * nx) / n2;
+        fan[j + 3] = (ny * e1z - nz * e1y) / n2;
+        fan[j + 4] = (nz * e1x - nx * e1z) / n2;
+        fan[j + 5] = (nx * e1y - ny * e1x) / n2;
+    }
+
+    /**Calculates the distance along a ray to its intersection with the poligon represented by this object.
+     @param ray The ray to intersect with the poligon.
+     @param maxDistance the maximum distance from the ray head
+     @return the distance of the intersection from the ray head, or 0 if there is no intersection in range**/
+    protected double findIntersectionDistance(Ray ray, double maxDistance) {
+        Point head = ray.head;
+        return findIntersectionDistance(head.getX(), head.getY(), head.getZ(),
+                ray.direction.getX(), ray.direction.getY(), ray.direction.getZ(), maxDistance);
+    }
+
+    /**Calculates the distance along a ray, given by the coordinates of its head and direction,
+     to its intersection with the poligon represented by this object: the intersection with the
+     plane, then the triangle of the fan it lies in.
+     @param maxDistance the maximum distance from the ray head
+     @return the distance of the intersection from the ray head, or 0 if there is no intersection in range**/
+    final double findIntersectionDistance(double ox, double oy, double oz, double dx, double dy, double dz,
+                                          double maxDistance) {
+        double t = plane.findIntersectionDistance(ox, oy, oz, dx, dy, dz, maxDistance);
+        if (t == 0)
+            return 0;
+        return findFanTriangle(ox + dx * t - ax, oy + dy * t - ay, oz + dz * t - az) < 0 ? 0 : t;
+    }
+
+    /**
+     * Finds the triangle of the fan a point of the plane lies in. A point on an edge of the
+     * polygon is outside, and a point on a diagonal of the fan is in the first triangle
+     * that has it.
+     *
+     * @param sx the x coordinate of the vector from the first vertex to the point
+     * @param sy the y coordinate of the vector from the first vertex to the point
+     * @param sz the z coordinate of the vector from the first vertex to the point
+     * @return the index of the triangle, or -1 if the point is outside the polygon
+     */
+    final int findFanTriangle(double sx, double sy, double sz) {
+        int last = size - 3;
+        for (int i = 0, j = 0; i <= last; ++i, j += 6) {
+            // before the diagonal to the third vertex of this triangle: in a later triangle
+            double u = Util.alignZero(sx * fan[j] + sy * fan[j + 1] + sz * fan[j + 2]);
+            if (u < 0)
+                continue;
+            // the triangles are checked in order, so the point is not before the diagonal to the
+            // second vertex, and the angle of the triangle at the first vertex holds the point
+            double v = Util.alignZero(sx * fan[j + 3] + sy * fan[j + 4] + sz * fan[j + 5]);
+            if (v < 0 || v == 0 && i == 0 || u == 0 && i == last)
+                return -1;
+            return Util.alignZero(1 - u - v) > 0 ? i : -1;
+        }
+        return -1;
+    }
 
     /**Finds the intersection-geoPoints between a ray and the poligon represented by this object.
      @param ray The ray to intersect with the poligon.
+     @param maxDistance the maximum distance from the ray head
      @return A list of GeoPoints representing the intersection-geoPoints between the ray and the poligon**/
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        List<GeoPoint> intersections = plane.findGeoIntersectionsHelper(ray);
-        if (intersections == null)
-            return null;
-        // check if the point in out or on the triangle:
-        Vector v1 = vertices.get(0).subtract(ray.head);
-        Vector v2 = vertices.get(1).subtract(ray.head);
-
-        Vector normal = v1.crossProduct(v2).normalize();
-
-        double sign = normal.dotProduct(ray.direction);
-        boolean sameSign = sign > 0;
-        if (isZero(sign))
-            return null;
-        for (int i = 2; i < vertices.size(); i++) {
-            v1 = v2;
-            v2 = vertices.get(i).subtract(ray.head);
-            normal = v1.crossProduct(v2).normalize();
-            sign = normal.dotProduct(ray.direction);
-            if (isZero(sign))
-                return null;
-            if (sameSign != (sign > 0))
-                return null;
-            sameSign = sign > 0;
+    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray, maxDistance);
+        return t == 0 ? null : List.of(new GeoPoint(this, ray.getPoint(t), t));
+    }
+
+    /**Finds the closest intersection-geoPoint between a ray and the poligon represented by this object.
+     @param ray The ray to intersect with the poligon.
+     @param maxDistance the maximum distance from the ray head
+     @return the intersection-geoPoint, or null if there is none in range**/
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray, maxDistance);
+        return t == 0 ? null : new GeoPoint(this, ray.getPoint(t), t);
+    }
+
+    /**
+     * Finds the closest intersections of a packet of rays with the poligon, testing all
+     * the rays in one loop over the packet arrays, with the same tests as the single-ray
+     * query.
+     * @param packet the rays and their closest hits so far
+     */
+    @Override
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet) {
+        for (int i = 0; i < packet.size; ++i) {
+            double t = findIntersectionDistance(packet.ox[i], packet.oy[i], packet.oz[i],
+                    packet.dx[i], packet.dy[i], packet.dz[i], packet.tMax[i]);
+            if (t != 0)
+                packet.setHit(i, this, t);
         }
-        v1 = v2;
-        v2 = vertices.get(0).subtract(ray.head);
-        normal = v1.crossProduct(v2).normalize();
-        sign = normal.dotProduct(ray.direction);
-        if (isZero(sign))
-            return null;
-        if (sameSign != (sign > 0))
-            return null;
-        sameSign = sign > 0;
-
-        intersections.get(0).geometry = this;
-
-        return intersections;
     }
-}
\ No newline at end of file
+
+    /**Reports the intersection between a ray and the poligon represented by this object to a blocker,
+     without constructing the intersection point.
+     @param ray The ray to intersect with the poligon.
+     @param maxDistance the maximum distance from the ray head
+     @param blocker called for the intersection if it is in range, returns true to stop
+     @return true if the blocker asked to stop**/
+    @Override
+    protected boolean findAnyIntersectionHelper(Ray ray, double maxDistance, Predicate<Geometry> blocker) {
+        return findIntersectionDistance(ray, maxDistance) != 0 && blocker.test(this);
+    }
+
+}
@@ -0,0 +1,574 @@
+package geometries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Util;
+import primitives.VectorMath;
+
+/**
+ * A small group of shapes intersected in bulk, used for the leaves of bounding volume
+ * hierarchies and for the shapes of plain collections.
+ * The spheres and the triangles of the group are copied into structure-of-arrays blocks
+ * (the centers and radii, the planes and barycentric edge vectors, each coordinate in its own
+ * {@code double[]}), which are intersected by loops over the arrays without a call per
+ * shape. A loop returns the nearest distance in range and the index of its primitive,
+ * and a single intersection point is constructed for the whole group.
+ * <p>
+ * The shapes keep their order: consecutive shapes of the same kind form a run, and the
+ * runs are searched in turn with the range shrinking as in {@link Geometries}, so the
+ * group finds exactly the intersections its shapes would find one by one. Planes and
+ * polygons are queried as usual, but each kind from its own loop, so that the JIT sees a
+ * single type at each call; the shapes of other kinds, subclasses included, share one loop.
+ * A block may also take the shapes by kind, with a single run of each kind. Each shape still
+ * keeps its position in the list, so of shapes hit at the same distance the closest one is
+ * the first in the list, as in {@link Geometries}.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+final class PrimitiveBlock extends Intersectable {
+    /** Run of spheres */
+    private static final int SPHERES = 0;
+    /** Run of triangles */
+    private static final int TRIANGLES = 1;
+    /** Run of planes */
+    private static final int PLANES = 2;
+    /** Run of polygons */
+    private static final int POLYGONS = 3;
+    /** Run of shapes of other kinds */
+    private static final int OTHERS = 4;
+
+    /**
+     * The closest hit of a ray so far. Of shapes hit at the same distance, the one that comes
+     * first in the list of the shapes is the closest.
+     */
+    private static final class Nearest {
+        /** The distance of the hit from the ray head, infinite if there is none */
+        double t = Double.POSITIVE_INFINITY;
+        /** The position of the shape hit in the list of the shapes */
+        int position = Integer.MAX_VALUE;
+
+        /**
+         * Replaces the hit by a hit that is closer
+         *
+         * @param t        the distance of the other hit from the ray head
+         * @param position the position of the shape of the other hit in the list
+         * @return true if the other hit is closer and replaced the hit
+         */
+        boolean replace(double t, int position) {
+            if (t > this.t || t == this.t && position > this.position)
+                return false;
+            this.t = t;
+            this.position = position;
+            return true;
+        }
+    }
+
+    /** The bounding box of the group, null if a shape is unbounded */
+    private final BoundingBox box;
+
+    /** The kind of each run */
+    private final int[] runKind;
+    /** The first index of each run in the arrays of its kind (inclusive) */
+    private final int[] runFrom;
+    /** The last index of each run in the arrays of its kind (exclusive) */
+    private final int[] runTo;
+    /** The position in the list of the shapes of each shape, by its kind and its index */
+    private final int[][] positions;
+    /** Set if the shapes are taken by kind rather than in the order of the list */
+    private final boolean byKind;
+
+    /** The spheres */
+    private final Sphere[] spheres;
+    /** The sphere centers */
+    private final double[] cx, cy, cz;
+    /** The sphere radii and their squares */
+    private final double[] radius, radius2;
+
+    /** The triangles */
+    private final Triangle[] triangles;
+    /** The normals of the triangle planes */
+    private final double[] nx, ny, nz;
+    /** The points of the triangle planes */
+    private final double[] qx, qy, qz;
+    /** The first vertices of the triangles */
+    private final double[] ax, ay, az;
+    /** The dual vectors of the triangle edges, see {@link Polygon#fan} */
+    private final double[] ux, uy, uz, vx, vy, vz;
+
+    /** The planes */
+    private final Plane[] planes;
+    /** The polygons */
+    private final Polygon[] polygons;
+    /** The shapes of other kinds */
+    private final Intersectable[] others;
+
+    /**
+     * Groups shapes into a block if some of them can be intersected in bulk
+     *
+     * @param shapes the shapes
+     * @return a single block holding the shapes, or the shapes themselves if none of them
+     *         is a sphere or a triangle
+     */
+    static Intersectable[] group(Intersectable[] shapes) {
+        for (Intersectable shape : shapes)
+            if (kind(shape) == SPHERES || kind(shape) == TRIANGLES)
+                return new Intersectable[]{new PrimitiveBlock(shapes)};
+        return shapes;
+    }
+
+    /**
+     * Finds the kind of run a shape belongs to
+     *
+     * @param shape the shape
+     * @return the kind
+     */
+    private static int kind(Intersectable shape) {
+        Class<?> type = shape.getClass();
+        return type == Sphere.class ? SPHERES : type == Triangle.class ? TRIANGLES
+                : type == Plane.class ? PLANES : type == Polygon.class ? POLYGONS : OTHERS;
+    }
+
+    /**
+     * Constructs a block over shapes, keeping their order
+     *
+     * @param shapes the shapes
+     */
+    PrimitiveBlock(Intersectable[] shapes) {
+        this(shapes, false);
+    }
+
+    /**
+     * Constructs a block over shapes, in their order or by their kind
+     *
+     * @param shapes the shapes
+     * @param byKind whether the shapes are taken by kind, with a single run of each kind,
+     *               keeping the order of the shapes of each kind
+     */
+    PrimitiveBlock(Intersectable[] shapes, boolean byKind) {
+        Integer[] order = new Integer[shapes.length];
+        for (int i = 0; i < shapes.length; ++i)
+            order[i] = i;
+        // a stable sort, so the shapes of each kind keep their order
+        if (byKind)
+            Arrays.sort(order, Comparator.comparingInt(i -> kind(shapes[i])));
+        this.byKind = byKind;
+        int[][] kindPositions = new int[OTHERS + 1][shapes.length];
+        List<Sphere> sphereList = new ArrayList<>();
+        List<Triangle> triangleList = new ArrayList<>();
+        List<Plane> planeList = new ArrayList<>();
+        List<Polygon> polygonList = new ArrayList<>();
+        List<Intersectable> otherList = new ArrayList<>();
+        List<int[]> runs = new ArrayList<>();
+        BoundingBox union = null;
+        boolean bounded = true;
+        for (int position : order) {
+            Intersectable shape = shapes[position];
+            BoundingBox shapeBox = shape.getBoundingBox();
+            if (shapeBox == null)
+                bounded = false;
+            else
+                union = union == null ? shapeBox : union.union(shapeBox);
+
+            int kind = kind(shape);
+            int index;
+            switch (kind) {
+                case SPHERES -> {
+                    index = sphereList.size();
+                    sphereList.add((Sphere) shape);
+                }
+                case TRIANGLES -> {
+                    index = triangleList.size();
+                    triangleList.add((Triangle) shape);
+                }
+                case PLANES -> {
+                    index = planeList.size();
+                    planeList.add((Plane) shape);
+                }
+                case POLYGONS -> {
+                    index = polygonList.size();
+                    polygonList.add((Polygon) shape);
+                }
+                default -> {
+                    index = otherList.size();
+                    otherList.add(shape);
+                }
+            }
+            kindPositions[kind][index] = position;
+            int[] last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if (last != null && last[0] == kind)
+                last[2] = index + 1;
+            else
+                runs.add(new int[]{kind, index, index + 1});
+        }
+        box = bounded ? union : null;
+
+        runKind = new int[runs.size()];
+        runFrom = new int[runs.size()];
+        runTo = new int[runs.size()];
+        for (int i = 0; i < runs.size(); ++i) {
+            runKind[i] = runs.get(i)[0];
+            runFrom[i] = runs.get(i)[1];
+            runTo[i] = runs.get(i)[2];
+        }
+
+        positions = new int[][]{
+                Arrays.copyOf(kindPositions[SPHERES], sphereList.size()),
+                Arrays.copyOf(kindPositions[TRIANGLES], triangleList.size()),
+                Arrays.copyOf(kindPositions[PLANES], planeList.size()),
+                Arrays.copyOf(kindPositions[POLYGONS], polygonList.size()),
+                Arrays.copyOf(kindPositions[OTHERS], otherList.size())};
+
+        spheres = sphereList.toArray(new Sphere[0]);
+        int n = spheres.length;
+        cx = new double[n];
+        cy = new double[n];
+        cz = new double[n];
+        radius = new double[n];
+        radius2 = new double[n];
+        for (int i = 0; i < n; ++i) {
+            Point center = spheres[i].getCenter();
+            cx[i] = center.getX();
+            cy[i] = center.getY();
+            cz[i] = center.getZ();
+            radius[i] = spheres[i]._radius;
+            radius2[i] = radius[i] * radius[i];
+        }
+
+        triangles = triangleList.toArray(new Triangle[0]);
+        n = triangles.length;
+        nx = new double[n];
+        ny = new double[n];
+        nz = new double[n];
+        qx = new double[n];
+        qy = new double[n];
+        qz = new double[n];
+        ax = new double[n];
+        ay = new double[n];
+        az = new double[n];
+        ux = new double[n];
+        uy = new double[n];
+        uz = new double[n];
+        vx = new double[n];
+        vy = new double[n];
+        vz = new double[n];
+        for (int i = 0; i < n; ++i) {
+            Triangle triangle = triangles[i];
+            nx[i] = triangle.plane.getNormal().getX();
+            ny[i] = triangle.plane.getNormal().getY();
+            nz[i] = triangle.plane.getNormal().getZ();
+            Point q = triangle.plane.getPoint();
+            qx[i] = q.getX();
+            qy[i] = q.getY();
+            qz[i] = q.getZ();
+            ax[i] = triangle.ax;
+            ay[i] = triangle.ay;
+            az[i] = triangle.az;
+            double[] fan = triangle.fan;
+            ux[i] = fan[0];
+            uy[i] = fan[1];
+            uz[i] = fan[2];
+            vx[i] = fan[3];
+            vy[i] = fan[4];
+            vz[i] = fan[5];
+        }
+
+        planes = planeList.toArray(new Plane[0]);
+        polygons = polygonList.toArray(new Polygon[0]);
+        others = otherList.toArray(new Intersectable[0]);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        LinkedList<GeoPoint> intersections = new LinkedList<>();
+        for (int r = 0; r < runKind.length; ++r) {
+            int from = runFrom[r], to = runTo[r];
+            switch (runKind[r]) {
+                case SPHERES -> {
+                    for (int i = from; i < to; ++i)
+                        addAll(intersections, spheres[i].findGeoIntersectionsHelper(ray, maxDistance));
+                }
+                case TRIANGLES -> {
+                    for (int i = from; i < to; ++i)
+                        addAll(intersections, triangles[i].findGeoIntersectionsHelper(ray, maxDistance));
+                }
+                case PLANES -> {
+                    for (int i = from; i < to; ++i)
+                        addAll(intersections, planes[i].findGeoIntersectionsHelper(ray, maxDistance));
+                }
+                case POLYGONS -> {
+                    for (int i = from; i < to; ++i)
+                        addAll(intersections, polygons[i].findGeoIntersectionsHelper(ray, maxDistance));
+                }
+                default -> {
+                    for (int i = from; i < to; ++i)
+                        addAll(intersections, others[i].findGeoIntersectionsHelper(ray, maxDistance));
+                }
+            }
+        }
+        return intersections.isEmpty() ? null : intersections;
+    }
+
+    /**
+     * Appends the intersections of a shape to a list
+     *
+     * @param intersections the list
+     * @param found         the intersections of the shape, or null if there are none
+     */
+    private static void addAll(List<GeoPoint> intersections, List<GeoPoint> found) {
+        if (found != null)
+            intersections.addAll(found);
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double ox = ray.head.getX(), oy = ray.head.getY(), oz = ray.head.getZ();
+        double dx = ray.direction.getX(), dy = ray.direction.getY(), dz = ray.direction.getZ();
+        Geometry closest = null;
+        GeoPoint closestOther = null;
+        Nearest best = new Nearest();
+        for (int r = 0; r < runKind.length; ++r) {
+            int from = runFrom[r], to = runTo[r];
+            switch (runKind[r]) {
+                case SPHERES -> {
+                    int i = nearestSphere(from, to, ox, oy, oz, dx, dy, dz, maxDistance, best);
+                    if (i >= 0) {
+                        closest = spheres[i];
+                        closestOther = null;
+                    }
+                }
+                case TRIANGLES -> {
+                    int i = nearestTriangle(from, to, ox, oy, oz, dx, dy, dz, maxDistance, best);
+                    if (i >= 0) {
+                        closest = triangles[i];
+                        closestOther = null;
+                    }
+                }
+                case PLANES -> {
+                    for (int i = from; i < to; ++i) {
+                        GeoPoint shapeClosest = planes[i].findClosestGeoIntersectionHelper(ray,
+                                Math.min(maxDistance, best.t));
+                        if (shapeClosest != null && best.replace(shapeClosest.t, positions[PLANES][i])) {
+                            closestOther = shapeClosest;
+                            closest = null;
+                        }
+                    }
+                }
+                case POLYGONS -> {
+                    for (int i = from; i < to; ++i) {
+                        GeoPoint shapeClosest = polygons[i].findClosestGeoIntersectionHelper(ray,
+                                Math.min(maxDistance, best.t));
+                        if (shapeClosest != null && best.replace(shapeClosest.t, positions[POLYGONS][i])) {
+                            closestOther = shapeClosest;
+                            closest = null;
+                        }
+                    }
+                }
+                default -> {
+                    for (int i = from; i < to; ++i) {
+                        GeoPoint shapeClosest = others[i].findClosestGeoIntersectionHelper(ray,
+                                Math.min(maxDistance, best.t));
+                        if (shapeClosest != null && best.replace(shapeClosest.t, positions[OTHERS][i])) {
+                            closestOther = shapeClosest;
+                            closest = null;
+                        }
+                    }
+                }
+            }
+        }
+        if (closestOther != null)
+            return closestOther;
+        return closest == null ? null : new GeoPoint(closest, ray.getPoint(best.t), best.t);
+    }
+
+    @Override
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet) {
+        // the lanes keep the first hit of a distance in the order of the search, which is not
+        // the order of the list if the shapes are taken by kind
+        if (byKind) {
+            super.findClosestGeoIntersectionsHelper(packet);
+            return;
+        }
+        for (int r = 0; r < runKind.length; ++r) {
+            int from = runFrom[r], to = runTo[r];
+            switch (runKind[r]) {
+                case SPHERES -> {
+                    for (int i = from; i < to; ++i)
+                        spheres[i].findClosestGeoIntersectionsHelper(packet);
+                }
+                case TRIANGLES -> {
+                    for (int i = from; i < to; ++i)
+                        triangles[i].findClosestGeoIntersectionsHelper(packet);
+                }
+                case PLANES -> {
+                    for (int i = from; i < to; ++i)
+                        planes[i].findClosestGeoIntersectionsHelper(packet);
+                }
+                case POLYGONS -> {
+                    for (int i = from; i < to; ++i)
+                        polygons[i].findClosestGeoIntersectionsHelper(packet);
+                }
+                default -> {
+                    for (int i = from; i < to; ++i)
+                        others[i].findClosestGeoIntersectionsHelper(packet);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean findAnyIntersectionHelper(Ray ray, double maxDistance, Predicate<Geometry> blocker) {
+        double ox = ray.head.getX(), oy = ray.head.getY(), oz = ray.head.getZ();
+        double dx = ray.direction.getX(), dy = ray.direction.getY(), dz = ray.direction.getZ();
+        for (int r = 0; r < runKind.length; ++r) {
+            int from = runFrom[r], to = runTo[r];
+            switch (runKind[r]) {
+                case SPHERES -> {
+                    for (int i = from; i < to; ++i)
+                        if (anySphere(i, ox, oy, oz, dx, dy, dz, maxDistance, blocker))
+                            return true;
+                }
+                case TRIANGLES -> {
+                    for (int i = from; i < to; ++i)
+                        if (triangle(i, ox, oy, oz, dx, dy, dz, maxDistance) != 0 && blocker.test(triangles[i]))
+                            return true;
+                }
+                case PLANES -> {
+                    for (int i = from; i < to; ++i)
+                        if (planes[i].findAnyIntersectionHelper(ray, maxDistance, blocker))
+                            return true;
+                }
+                case POLYGONS -> {
+                    for (int i = from; i < to; ++i)
+                        if (polygons[i].findAnyIntersectionHelper(ray, maxDistance, blocker))
+                            return true;
+                }
+                default -> {
+                    for (int i = from; i < to; ++i)
+                        if (others[i].findAnyIntersectionHelper(ray, maxDistance, blocker))
+                            return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the nearest intersection of a ray with a run of spheres, with the same
+     * arithmetic as {@link Sphere}
+     *
+     * @param maxDistance the maximum distance from the ray head
+     * @param best        the closest hit so far, replaced by the nearest intersection in range
+     *                    if it is closer
+     * @return the index of the sphere of the nearest intersection, or -1 if there is none
+     */
+    private int nearestSphere(int from, int to, double ox, double oy, double oz,
+                              double dx, double dy, double dz, double maxDistance, Nearest best) {
+        double bound = Math.min(maxDistance, best.t);
+        int nearest = -1;
+        for (int i = from; i < to; ++i) {
+            double ux = cx[i] - ox, uy = cy[i] - oy, uz = cz[i] - oz;
+            double t;
+            if (VectorMath.isZero(ux, uy, uz))
+                t = radius[i];
+            else {
+                double tm = dx * ux + dy * uy + dz * uz;
+                double d2 = ux * ux + uy * uy + uz * uz - tm * tm;
+                if (d2 >= radius2[i])
+                    continue;
+                double th = Math.sqrt(radius2[i] - d2);
+                // the nearer point is in front of the head, or the head is inside the sphere
+                t = tm - th > 0 ? tm - th : tm + th;
+            }
+            if (t > 0 && Util.alignZero(t - bound) <= 0 && best.replace(t, positions[SPHERES][i])) {
+                bound = t;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Reports the intersections of a ray with a sphere of the block to a blocker, with the
+     * same arithmetic and in the same order as {@link Sphere}
+     *
+     * @return true if the blocker asked to stop
+     */
+    private boolean anySphere(int i, double ox, double oy, double oz, double dx, double dy, double dz,
+                              double maxDistance, Predicate<Geometry> blocker) {
+        double ux = cx[i] - ox, uy = cy[i] - oy, uz = cz[i] - oz;
+        if (VectorMath.isZero(ux, uy, uz))
+            return Util.alignZero(radius[i] - maxDistance) <= 0 && blocker.test(spheres[i]);
+        double tm = dx * ux + dy * uy + dz * uz;
+        double d2 = ux * ux + uy * uy + uz * uz - tm * tm;
+        if (d2 >= radius2[i])
+            return false;
+        double th = Math.sqrt(radius2[i] - d2);
+        double t1 = tm - th, t2 = tm + th;
+        if (t1 > 0 && Util.alignZero(t1 - maxDistance) <= 0 && blocker.test(spheres[i]))
+            return true;
+        return t2 > 0 && Util.alignZero(t2 - maxDistance) <= 0 && blocker.test(spheres[i]);
+    }
+
+    /**
+     * Finds the nearest intersection of a ray with a run of triangles
+     *
+     * @param maxDistance the maximum distance from the ray head
+     * @param best        the closest hit so far, replaced by the nearest intersection in range
+     *                    if it is closer
+     * @return the index of the triangle of the nearest intersection, or -1 if there is none
+     */
+    private int nearestTriangle(int from, int to, double ox, double oy, double oz,
+                                double dx, double dy, double dz, double maxDistance, Nearest best) {
+        double bound = Math.min(maxDistance, best.t);
+        int nearest = -1;
+        for (int i = from; i < to; ++i) {
+            double t = triangle(i, ox, oy, oz, dx, dy, dz, bound);
+            if (t != 0 && best.replace(t, positions[TRIANGLES][i])) {
+                bound = t;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Intersects a ray with a triangle of the block, with the same arithmetic as
+     * {@link Triangle}: the plane of the triangle, then the barycentric coordinates of the
+     * point on the plane
+     *
+     * @return the distance of the intersection from the ray head, or 0 if there is none in range
+     */
+    private double triangle(int i, double ox, double oy, double oz, double dx, double dy, double dz,
+                            double maxDistance) {
+        double nv = nx[i] * dx + ny[i] * dy + nz[i] * dz;
+        if (Util.isZero(nv))
+            return 0;
+        double px = qx[i] - ox, py = qy[i] - oy, pz = qz[i] - oz;
+        if (VectorMath.isZero(px, py, pz))
+            return 0;
+        double t = Util.alignZero((nx[i] * px + ny[i] * py + nz[i] * pz) / nv);
+        if (t <= 0 || Util.alignZero(t - maxDistance) > 0)
+            return 0;
+
+        double sx = ox + dx * t - ax[i], sy = oy + dy * t - ay[i], sz = oz + dz * t - az[i];
+        double u = Util.alignZero(sx * ux[i] + sy * uy[i] + sz * uz[i]);
+        if (u <= 0)
+            return 0;
+        double v = Util.alignZero(sx * vx[i] + sy * vy[i] + sz * vz[i]);
+        if (v <= 0)
+            return 0;
+        return Util.alignZero(1 - u - v) > 0 ? t : 0;
+    }
+}
@@ -0,0 +1,164 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Ray;
+
+/**
+ * A packet of up to {@link #SIZE} coherent rays (e.g. the anti-aliasing samples of
+ * a pixel) that are traced together.
+ * The rays are kept in structure-of-arrays form, so that a bounding box or a sphere
+ * is tested against all the rays in one tight loop over the lanes, and a node of an
+ * acceleration structure is visited once for the whole packet rather than once per ray.
+ * Each lane keeps the closest hit found so far; its distance is the range of the
+ * further search on that lane.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public final class RayPacket {
+    /** Maximum number of rays in a packet */
+    public static final int SIZE = 8;
+
+    /** The rays */
+    final Ray[] rays = new Ray[SIZE];
+    /** The ray head coordinates */
+    final double[] ox = new double[SIZE], oy = new double[SIZE], oz = new double[SIZE];
+    /** The ray direction coordinates */
+    final double[] dx = new double[SIZE], dy = new double[SIZE], dz = new double[SIZE];
+    /** The inverse of the ray direction coordinates, for slab tests */
+    final double[] invX = new double[SIZE], invY = new double[SIZE], invZ = new double[SIZE];
+    /** The distance of the closest hit of each ray so far, the range of the search */
+    final double[] tMax = new double[SIZE];
+    /** The number of rays in the packet */
+    int size = 0;
+
+    /** The geometry of the closest hit of each ray so far */
+    private final Geometry[] hits = new Geometry[SIZE];
+    /** The closest hit point of each ray, constructed on demand */
+    private final GeoPoint[] closest = new GeoPoint[SIZE];
+
+    /**
+     * Adds a ray to the packet
+     *
+     * @param ray the ray
+     * @throws IllegalStateException if the packet is full
+     */
+    public void add(Ray ray) {
+        if (size == SIZE)
+            throw new IllegalStateException("The ray packet is full");
+        rays[size] = ray;
+        ox[size] = ray.head.getX();
+        oy[size] = ray.head.getY();
+        oz[size] = ray.head.getZ();
+        dx[size] = ray.direction.getX();
+        dy[size] = ray.direction.getY();
+        dz[size] = ray.direction.getZ();
+        invX[size] = 1 / dx[size];
+        invY[size] = 1 / dy[size];
+        invZ[size] = 1 / dz[size];
+        tMax[size] = Double.POSITIVE_INFINITY;
+        hits[size] = null;
+        closest[size] = null;
+        ++size;
+    }
+
+    /**
+     * Removes all the rays, so that the packet can be reused
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the number of rays in the packet
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if no more rays can be added
+     */
+    public boolean isFull() {
+        return size == SIZE;
+    }
+
+    /**
+     * @param lane the index of the ray in the packet
+     * @return the ray
+     */
+    public Ray getRay(int lane) {
+        return rays[lane];
+    }
+
+    /**
+     * Returns the closest intersection found for a ray of the packet
+     *
+     * @param lane the index of the ray in the packet
+     * @return the closest intersection, or null if the ray hits nothing
+     */
+    public GeoPoint getClosest(int lane) {
+        if (closest[lane] == null && hits[lane] != null)
+            closest[lane] = new GeoPoint(hits[lane], rays[lane].getPoint(tMax[lane]), tMax[lane]);
+        return closest[lane];
+    }
+
+    /**
+     * Records a closer hit of a ray, whose point is constructed only if it remains the closest.
+     * A hit at the same distance as the closest one so far is ignored.
+     *
+     * @param lane     the index of the ray in the packet
+     * @param geometry the geometry hit
+     * @param t        the distance of the hit from the ray head
+     */
+    void setHit(int lane, Geometry geometry, double t) {
+        if (hits[lane] != null && t >= tMax[lane])
+            return;
+        hits[lane] = geometry;
+        closest[lane] = null;
+        tMax[lane] = t;
+    }
+
+    /**
+     * Records a closer hit of a ray, found by a single-ray query.
+     * A hit at the same distance as the closest one so far is ignored.
+     *
+     * @param lane the index of the ray in the packet
+     * @param gp   the intersection, with its distance
+     */
+    void setClosest(int lane, GeoPoint gp) {
+        if (hits[lane] != null && gp.t >= tMax[lane])
+            return;
+        hits[lane] = gp.geometry;
+        closest[lane] = gp;
+        tMax[lane] = gp.t;
+    }
+
+    /**
+     * Slab test of all the rays against a box, each ray within its own range
+     *
+     * @param box the box
+     * @return the smallest distance at which a ray enters the box, or
+     *         {@link Double#POSITIVE_INFINITY} if all the rays miss it
+     */
+    double enter(BoundingBox box) {
+        return enter(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+    }
+
+    /**
+     * Slab test of all the rays against a box given by its corner coordinates
+     *
+     * @return the smallest distance at which a ray enters the box, or
+     *         {@link Double#POSITIVE_INFINITY} if all the rays miss it
+     */
+    double enter(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        double nearest = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; ++i) {
+            double t = BoundingBox.intersect(minX, minY, minZ, maxX, maxY, maxZ,
+                    ox[i], oy[i], oz[i], invX[i], invY[i], invZ[i], tMax[i]);
+            // a NaN entry distance (ray on a box face) is kept as a hit
+            if (!(t >= nearest))
+                nearest = Double.isNaN(t) ? 0 : t;
+        }
+        return nearest;
+    }
+}
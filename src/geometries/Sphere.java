@@ -1,10 +1,12 @@
 package geometries;
 import java.util.List;
+import java.util.function.Predicate;
 
 import primitives.Point;
 import primitives.Ray;
 import primitives.Util;
 import primitives.Vector;
+import primitives.VectorMath;
 
 /**
  * Represents a sphere in three-dimensional space.
@@ -16,6 +18,9 @@ public class Sphere extends RadialGeometry {
     /** The center point of the sphere */
     private final Point _center;
 
+    /** The bounding box of the sphere */
+    private final BoundingBox box;
+
     /**
      * Constructs a sphere with the given center point and radius.
      * @param center The center point of the sphere.
@@ -24,6 +29,21 @@ public class Sphere extends RadialGeometry {
     public Sphere(Point center, double radius) {
         super(radius);
         this._center = center;
+        this.box = new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    /**
+     * Gets the center of the sphere
+     * @return the center point
+     */
+    Point getCenter() {
+        return _center;
     }
 
     /**
@@ -31,32 +51,35 @@ public class Sphere extends RadialGeometry {
      */
     @Override
     public Vector getNormal(Point point) {
-        return point.subtract(_center).normalize();
+        return VectorMath.normalized(point.getX() - _center.getX(), point.getY() - _center.getY(),
+                point.getZ() - _center.getZ());
     }
 
 
-//@Override
     /**
      * Finds the intersection point(s) of a given Ray with the Sphere.
      * @param ray the Ray to intersect with the Sphere
+     * @param maxDistance the maximum distance from the ray head
      * @return a List of Point objects representing the intersection point(s) of the Ray and the Sphere.
      * If no intersection occurs, returns null.
      */
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
         Point p0 = ray.head; // ray's starting point
-        Point O = this._center; //the sphere's center point
         Vector V = ray.direction; // "the v vector" from the presentation
+        // "the u vector" from the ray head to the sphere's center
+        double ux = _center.getX() - p0.getX(), uy = _center.getY() - p0.getY(), uz = _center.getZ() - p0.getZ();
 
         // if p0 on center, calculate with line parametric representation
         // the direction vector normalized.
-        if (O.equals(p0)) {
-            Point newPoint = p0.add(ray.direction.scale(this._radius));
-            return List.of(new GeoPoint(this,newPoint));
+        if (VectorMath.isZero(ux, uy, uz)) {
+            if (Util.alignZero(this._radius - maxDistance) > 0)
+                return null;
+            return List.of(new GeoPoint(this, ray.getPoint(this._radius), this._radius));
         }
 
-        Vector U = O.subtract(p0);
-        double tm = V.dotProduct(U);
-        double d = Math.sqrt(U.lengthSquared() - tm * tm);
+        double tm = VectorMath.dot(V.getX(), V.getY(), V.getZ(), ux, uy, uz);
+        double d = Math.sqrt(VectorMath.lengthSquared(ux, uy, uz) - tm * tm);
         if (d >= this._radius) {
             return null;
         }
@@ -65,22 +88,113 @@ public class Sphere extends RadialGeometry {
         double t1 = tm - th;
         double t2 = tm + th;
 
-        if (t1 > 0 && t2 > 0) {
+        // reject the points beyond the distance before constructing them
+        boolean in1 = t1 > 0 && Util.alignZero(t1 - maxDistance) <= 0;
+        boolean in2 = t2 > 0 && Util.alignZero(t2 - maxDistance) <= 0;
+
+        if (in1 && in2) {
             Point p1 = ray.getPoint(t1);
             Point p2 = ray.getPoint(t2);
-            return List.of(new GeoPoint(this,p1),new GeoPoint(this,p2));
+            return List.of(new GeoPoint(this,p1,t1),new GeoPoint(this,p2,t2));
         }
 
-        if (t1 > 0) {
+        if (in1) {
             Point p1 = ray.getPoint(t1);
-            return List.of(new GeoPoint(this,p1));
+            return List.of(new GeoPoint(this,p1,t1));
         }
 
-        if (t2 > 0) {
+        if (in2) {
             Point p2 = ray.getPoint(t2);
-            return List.of(new GeoPoint(this,p2));
+            return List.of(new GeoPoint(this,p2,t2));
         }
         return null;
 
     }
+
+    /**
+     * Finds the closest intersection point of a given Ray with the Sphere.
+     * Only the nearest distance in range is turned into a point.
+     * @param ray the Ray to intersect with the Sphere
+     * @param maxDistance the maximum distance from the ray head
+     * @return the closest intersection point, or null if there is none in range
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point p0 = ray.head;
+        Vector v = ray.direction;
+        double ux = _center.getX() - p0.getX(), uy = _center.getY() - p0.getY(), uz = _center.getZ() - p0.getZ();
+        if (VectorMath.isZero(ux, uy, uz))
+            return Util.alignZero(this._radius - maxDistance) > 0 ? null
+                    : new GeoPoint(this, ray.getPoint(this._radius), this._radius);
+
+        double tm = VectorMath.dot(v.getX(), v.getY(), v.getZ(), ux, uy, uz);
+        double d2 = VectorMath.lengthSquared(ux, uy, uz) - tm * tm;
+        double r2 = this._radius * this._radius;
+        if (d2 >= r2)
+            return null;
+
+        double th = Math.sqrt(r2 - d2);
+        // the nearer point is in front of the head, or the head is inside the sphere
+        double t = tm - th > 0 ? tm - th : tm + th;
+        if (t <= 0 || Util.alignZero(t - maxDistance) > 0)
+            return null;
+        return new GeoPoint(this, ray.getPoint(t), t);
+    }
+
+    /**
+     * Finds the closest intersections of a packet of rays with the Sphere, testing all
+     * the rays in one loop over the packet arrays.
+     * A ray whose head is at the center is left to the single-ray query.
+     * @param packet the rays and their closest hits so far
+     */
+    @Override
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet) {
+        double cx = this._center.getX(), cy = this._center.getY(), cz = this._center.getZ();
+        double r2 = this._radius * this._radius;
+        for (int i = 0; i < packet.size; ++i) {
+            double ux = cx - packet.ox[i], uy = cy - packet.oy[i], uz = cz - packet.oz[i];
+            if (VectorMath.isZero(ux, uy, uz)) {
+                findClosestInLane(packet, i);
+                continue;
+            }
+            double tm = VectorMath.dot(packet.dx[i], packet.dy[i], packet.dz[i], ux, uy, uz);
+            double d2 = VectorMath.lengthSquared(ux, uy, uz) - tm * tm;
+            if (d2 >= r2)
+                continue;
+            double th = Math.sqrt(r2 - d2);
+            double t = tm - th > 0 ? tm - th : tm + th;
+            if (t > 0 && Util.alignZero(t - packet.tMax[i]) <= 0)
+                packet.setHit(i, this, t);
+        }
+    }
+
+    /**
+     * Reports the intersections of a given Ray with the Sphere to a blocker,
+     * without constructing the intersection points.
+     * @param ray the Ray to intersect with the Sphere
+     * @param maxDistance the maximum distance from the ray head
+     * @param blocker called for each intersection in range, returns true to stop
+     * @return true if the blocker asked to stop
+     */
+    @Override
+    protected boolean findAnyIntersectionHelper(Ray ray, double maxDistance, Predicate<Geometry> blocker) {
+        Point p0 = ray.head;
+        Vector v = ray.direction;
+        double ux = _center.getX() - p0.getX(), uy = _center.getY() - p0.getY(), uz = _center.getZ() - p0.getZ();
+        if (VectorMath.isZero(ux, uy, uz))
+            return Util.alignZero(this._radius - maxDistance) <= 0 && blocker.test(this);
+
+        double tm = VectorMath.dot(v.getX(), v.getY(), v.getZ(), ux, uy, uz);
+        double d2 = VectorMath.lengthSquared(ux, uy, uz) - tm * tm;
+        double r2 = this._radius * this._radius;
+        if (d2 >= r2)
+            return false;
+
+        double th = Math.sqrt(r2 - d2);
+        double t1 = tm - th;
+        double t2 = tm + th;
+        if (t1 > 0 && Util.alignZero(t1 - maxDistance) <= 0 && blocker.test(this))
+            return true;
+        return t2 > 0 && Util.alignZero(t2 - maxDistance) <= 0 && blocker.test(this);
+    }
 }
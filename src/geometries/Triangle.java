@@ -1,10 +1,8 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
-import primitives.Util;
-import primitives.Vector;
 import primitives.Ray;
-import java.util.List;
 
 
 /**
@@ -27,39 +25,23 @@ public class Triangle extends Polygon {
         super(p1, p2, p3);
     }
 
-    @Override
     /**
-     * Finding intersection-geoPoints with a given ray
+     * Finds the barycentric coordinates of the intersection of a ray with the triangle:
+     * the weights of the vertices whose sum is the intersection point
      * @param ray A ray
-     * @return All the intersection-geoPoints of this triangle and the given ray
+     * @return the weights of the first, second and third vertices, or null if the ray
+     * does not intersect the triangle
      */
-    //Check if the ray intersect the plane.
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray){
-        List<GeoPoint> intersections = plane.findGeoIntersections(ray);
-        if (intersections == null) return null;
+    public Double3 findBarycentric(Ray ray) {
+        double t = findIntersectionDistance(ray, Double.POSITIVE_INFINITY);
+        if (t == 0) return null;
 
         Point p0 = ray.head;
-        Vector v = ray.direction;
-
-        Vector v1 = vertices.get(0).subtract(p0);
-        Vector v2 = vertices.get(1).subtract(p0);
-        Vector v3 = vertices.get(2).subtract(p0);
-
-        //Check every side of the triangle
-        double s1 = v.dotProduct(v1.crossProduct(v2));
-
-        if (Util.isZero(s1)) return null;
-
-        double s2 = v.dotProduct(v2.crossProduct(v3));
-
-        if (Util.isZero(s2)) return null;
-
-        double s3 = v.dotProduct(v3.crossProduct(v1));
-
-        if (Util.isZero(s3)) return null;
-
-        if (!((s1 > 0 && s2 > 0 && s3 > 0) || (s1 < 0 && s2 < 0 && s3 < 0))) return null;
-
-        return List.of(new GeoPoint(this,intersections.get(0).point));
+        double sx = p0.getX() + ray.direction.getX() * t - ax;
+        double sy = p0.getY() + ray.direction.getY() * t - ay;
+        double sz = p0.getZ() + ray.direction.getZ() * t - az;
+        double u = sx * fan[0] + sy * fan[1] + sz * fan[2];
+        double v = sx * fan[3] + sy * fan[4] + sz * fan[5];
+        return new Double3(1 - u - v, u, v);
     }
-}
\ No newline at end of file
+}
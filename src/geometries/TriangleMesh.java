@@ -0,0 +1,591 @@
+package geometries;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Util;
+import primitives.Vector;
+import primitives.VectorMath;
+
+/**
+ * Indexed triangle mesh: a whole model as a single geometry with one material.
+ * The vertices are kept in a shared coordinate buffer and each face is three indices
+ * into it, so a triangle costs a few ints instead of a {@link Triangle} with its own
+ * points, plane and material. Rays are intersected with the Möller–Trumbore algorithm,
+ * and the faces are indexed by a bounding volume hierarchy kept in flat arrays, so that
+ * models of millions of faces render with a logarithmic number of tests per ray.
+ * <p>
+ * Unlike {@link Triangle}, the edges of a face belong to it, so that rays hitting a
+ * shared edge do not fall through the cracks between neighbouring faces.
+ * <p>
+ * A mesh constructed from a {@code float[]} vertex buffer keeps its vertices and its
+ * hierarchy in single precision (see {@link Precision}), and intersects its faces in
+ * single precision as well; the hit points and the normals are still calculated in
+ * double precision.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public class TriangleMesh extends Geometry {
+    /** Faces per leaf of the face hierarchy */
+    private static final int MAX_LEAF_SIZE = 4;
+    /** Number of array entries per node box */
+    private static final int BOX_SIZE = 6;
+    /** Value returned by a face visitor to stop the traversal */
+    private static final double STOP = -1;
+    /** Tolerance for locating a point on a face */
+    private static final double ON_FACE = 1e-6;
+
+    /** The vertex coordinates: x, y, z of each vertex; null in single precision */
+    private final double[] vertices;
+    /** The vertex coordinates in single precision; null in double precision */
+    private final float[] floatVertices;
+    /** The faces: three vertex indices for each face */
+    private final int[] faces;
+    /** The bounding box of the mesh */
+    private final BoundingBox box;
+
+    /**
+     * The boxes of the hierarchy nodes: minX, minY, minZ, maxX, maxY, maxZ of each node;
+     * null in single precision
+     */
+    private double[] bounds;
+    /** The boxes of the hierarchy nodes rounded outwards, in single precision; null in double precision */
+    private float[] floatBounds = null;
+    /**
+     * Two entries per node. For a leaf: the position of its first face in {@link #order}
+     * and the number of its faces. For an inner node: the index of its second child and 0.
+     */
+    private int[] links;
+    /** The face indices, ordered so that the faces of each leaf are consecutive */
+    private final int[] order;
+    /** The number of nodes in the hierarchy */
+    private int nodeCount = 0;
+    /** Depth of the hierarchy, which bounds the size of the traversal stack */
+    private int depth = 0;
+
+    /** Per-thread traversal stacks */
+    private final ThreadLocal<int[]> stacks = ThreadLocal.withInitial(() -> new int[depth + 1]);
+
+    /**
+     * Visitor of the faces hit by a ray
+     */
+    @FunctionalInterface
+    private interface FaceVisitor {
+        /**
+         * Visits a face hit by the ray
+         *
+         * @param face        the face
+         * @param t           the distance of the hit from the ray head
+         * @param maxDistance the maximum distance of interest
+         * @return the new maximum distance of interest, or {@link #STOP} to stop the traversal
+         */
+        double visit(int face, double t, double maxDistance);
+    }
+
+    /**
+     * Constructs a mesh from a vertex buffer and a face index buffer.
+     * The mesh keeps the given arrays rather than copying them, so that huge models are
+     * not held twice; they must not be changed afterwards.
+     *
+     * @param vertices the vertex coordinates: x, y, z of each vertex
+     * @param faces    the faces: the indices of the three vertices of each face
+     * @throws IllegalArgumentException if the buffers are empty, not made of triplets,
+     *                                  or a face refers to a missing vertex
+     */
+    public TriangleMesh(double[] vertices, int[] faces) {
+        this(vertices, null, faces);
+    }
+
+    /**
+     * Constructs a mesh in single precision from a vertex buffer and a face index buffer,
+     * with half the memory of a mesh in double precision.
+     * The mesh keeps the given arrays rather than copying them, so that huge models are
+     * not held twice; they must not be changed afterwards.
+     *
+     * @param vertices the vertex coordinates: x, y, z of each vertex
+     * @param faces    the faces: the indices of the three vertices of each face
+     * @throws IllegalArgumentException if the buffers are empty, not made of triplets,
+     *                                  or a face refers to a missing vertex
+     */
+    public TriangleMesh(float[] vertices, int[] faces) {
+        this(null, vertices, faces);
+    }
+
+    /**
+     * Constructs a mesh from a vertex buffer in either precision
+     *
+     * @param vertices      the vertex coordinates in double precision, or null
+     * @param floatVertices the vertex coordinates in single precision, or null
+     * @param faces         the faces
+     */
+    private TriangleMesh(double[] vertices, float[] floatVertices, int[] faces) {
+        int length = vertices != null ? vertices.length : floatVertices.length;
+        if (length == 0 || length % 3 != 0)
+            throw new IllegalArgumentException("Mesh vertices must be a non-empty list of coordinate triplets");
+        if (faces.length == 0 || faces.length % 3 != 0)
+            throw new IllegalArgumentException("Mesh faces must be a non-empty list of index triplets");
+        int vertexCount = length / 3;
+        for (int index : faces)
+            if (index < 0 || index >= vertexCount)
+                throw new IllegalArgumentException("Mesh face refers to a missing vertex " + index);
+        this.vertices = vertices;
+        this.floatVertices = floatVertices;
+        this.faces = faces;
+
+        int faceCount = faces.length / 3;
+        order = new int[faceCount];
+        for (int i = 0; i < faceCount; ++i)
+            order[i] = i;
+        // a hierarchy with small leaves has about half as many nodes as faces
+        bounds = new double[Math.max(1, faceCount / 2) * BOX_SIZE];
+        links = new int[Math.max(1, faceCount / 2) * 2];
+        build(0, faceCount, 1);
+        bounds = Arrays.copyOf(bounds, nodeCount * BOX_SIZE);
+        links = Arrays.copyOf(links, nodeCount * 2);
+        box = new BoundingBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+        if (floatVertices != null) {
+            floatBounds = BoundingBox.roundOutwards(bounds);
+            bounds = null;
+        }
+    }
+
+    /**
+     * @return the number of faces in the mesh
+     */
+    public int getFaceCount() {
+        return faces.length / 3;
+    }
+
+    /**
+     * @return the precision in which the vertices and the hierarchy are stored
+     */
+    public Precision getPrecision() {
+        return floatVertices != null ? Precision.FLOAT : Precision.DOUBLE;
+    }
+
+    /**
+     * Reads a vertex coordinate in either precision
+     *
+     * @param index the index of the coordinate in the vertex buffer
+     * @return the coordinate
+     */
+    private double vertex(int index) {
+        return floatVertices != null ? floatVertices[index] : vertices[index];
+    }
+
+    /**
+     * Reads a coordinate of a node box in either precision
+     *
+     * @param index the index of the coordinate in the boxes
+     * @return the coordinate
+     */
+    private double bound(int index) {
+        return floatBounds != null ? floatBounds[index] : bounds[index];
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    /**
+     * Returns the normal of the face the point lies on. The normal follows the
+     * order of the vertices of the face.
+     *
+     * @param point a point on the mesh
+     * @return the normal of the face
+     * @throws IllegalArgumentException if the point is not on the mesh
+     */
+    @Override
+    public Vector getNormal(Point point) {
+        int face = locate(point.getX(), point.getY(), point.getZ());
+        if (face < 0)
+            throw new IllegalArgumentException("The point is not on the mesh");
+        return getNormal(face);
+    }
+
+    /**
+     * Returns the normal of a face hit by a ray, which is known without locating the point
+     *
+     * @param point     a point on the mesh
+     * @param primitive the face the point lies on, -1 if unknown
+     * @return the normal of the face
+     */
+    @Override
+    public Vector getNormal(Point point, int primitive) {
+        return primitive >= 0 ? getNormal(primitive) : getNormal(point);
+    }
+
+    /**
+     * Calculates the normal of a face
+     *
+     * @param face the face
+     * @return the normal, by the order of the vertices of the face
+     */
+    private Vector getNormal(int face) {
+        int a = 3 * faces[3 * face], b = 3 * faces[3 * face + 1], c = 3 * faces[3 * face + 2];
+        double e1x = vertex(b) - vertex(a), e1y = vertex(b + 1) - vertex(a + 1), e1z = vertex(b + 2) - vertex(a + 2);
+        double e2x = vertex(c) - vertex(a), e2y = vertex(c + 1) - vertex(a + 1), e2z = vertex(c + 2) - vertex(a + 2);
+        return VectorMath.normalized(e1y * e2z - e1z * e2y, e1z * e2x - e1x * e2z, e1x * e2y - e1y * e2x);
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = new LinkedList<>();
+        traverse(ray, maxDistance, (face, t, max) -> {
+            intersections.add(new GeoPoint(this, ray.getPoint(t), t, face));
+            return max;
+        });
+        return intersections.isEmpty() ? null : intersections;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double[] closest = {0};
+        int[] closestFace = {-1};
+        traverse(ray, maxDistance, (face, t, max) -> {
+            // of faces hit at the same distance, the first one visited is kept
+            if (closest[0] != 0 && t >= closest[0])
+                return max;
+            closestFace[0] = face;
+            return closest[0] = t;
+        });
+        return closest[0] == 0 ? null : new GeoPoint(this, ray.getPoint(closest[0]), closest[0], closestFace[0]);
+    }
+
+    @Override
+    protected boolean findAnyIntersectionHelper(Ray ray, double maxDistance, Predicate<Geometry> blocker) {
+        return traverse(ray, maxDistance, (face, t, max) -> blocker.test(this) ? STOP : max) == STOP;
+    }
+
+    /**
+     * Visits the faces hit by a ray within a distance, walking the face hierarchy with
+     * an explicit stack. The nearer child of a node is visited first, and a postponed
+     * child is skipped if it starts beyond the distance left.
+     *
+     * @param ray         the ray
+     * @param maxDistance the maximum distance from the ray head
+     * @param visitor     the visitor, which may shrink the distance or stop the traversal
+     * @return the final maximum distance, or {@link #STOP} if the visitor stopped the traversal
+     */
+    private double traverse(Ray ray, double maxDistance, FaceVisitor visitor) {
+        double ox = ray.head.getX(), oy = ray.head.getY(), oz = ray.head.getZ();
+        double dx = ray.direction.getX(), dy = ray.direction.getY(), dz = ray.direction.getZ();
+        double invX = 1 / dx, invY = 1 / dy, invZ = 1 / dz;
+        if (enter(0, ox, oy, oz, invX, invY, invZ, maxDistance) == Double.POSITIVE_INFINITY)
+            return maxDistance;
+
+        int[] stack = stacks.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            int count = links[2 * node + 1];
+            if (count > 0) {
+                for (int i = links[2 * node], end = i + count; i < end; ++i) {
+                    int face = order[i];
+                    double t = intersect(face, ox, oy, oz, dx, dy, dz, maxDistance);
+                    if (t > 0) {
+                        maxDistance = visitor.visit(face, t, maxDistance);
+                        if (maxDistance == STOP)
+                            return STOP;
+                    }
+                }
+                node = -1;
+            } else {
+                int near = node + 1, far = links[2 * node];
+                double tNear = enter(near, ox, oy, oz, invX, invY, invZ, maxDistance);
+                double tFar = enter(far, ox, oy, oz, invX, invY, invZ, maxDistance);
+                if (tFar < tNear) {
+                    int tmp = near;
+                    near = far;
+                    far = tmp;
+                    double t = tNear;
+                    tNear = tFar;
+                    tFar = t;
+                }
+                if (tFar != Double.POSITIVE_INFINITY)
+                    stack[top++] = far;
+                node = tNear != Double.POSITIVE_INFINITY ? near : -1;
+            }
+
+            // resume from the postponed nodes, tested again since the distance may have shrunk
+            while (node < 0) {
+                if (top == 0)
+                    return maxDistance;
+                --top;
+                if (enter(stack[top], ox, oy, oz, invX, invY, invZ, maxDistance) != Double.POSITIVE_INFINITY)
+                    node = stack[top];
+            }
+        }
+    }
+
+    /**
+     * Intersects a ray with a face by the Möller–Trumbore algorithm
+     *
+     * @param face        the face
+     * @param maxDistance the maximum distance from the ray head
+     * @return the distance of the intersection from the ray head, or 0 if there is none in range
+     */
+    private double intersect(int face, double ox, double oy, double oz,
+                             double dx, double dy, double dz, double maxDistance) {
+        if (floatVertices != null)
+            return intersectFloat(face, ox, oy, oz, dx, dy, dz, maxDistance);
+        int a = 3 * faces[3 * face], b = 3 * faces[3 * face + 1], c = 3 * faces[3 * face + 2];
+        double ax = vertices[a], ay = vertices[a + 1], az = vertices[a + 2];
+        double e1x = vertices[b] - ax, e1y = vertices[b + 1] - ay, e1z = vertices[b + 2] - az;
+        double e2x = vertices[c] - ax, e2y = vertices[c + 1] - ay, e2z = vertices[c + 2] - az;
+
+        // p = d x e2, the determinant is zero if the ray is parallel to the face
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (Util.isZero(det))
+            return 0;
+        double inv = 1 / det;
+
+        // barycentric coordinates of the hit point
+        double sx = ox - ax, sy = oy - ay, sz = oz - az;
+        double u = (sx * px + sy * py + sz * pz) * inv;
+        if (u < 0 || u > 1)
+            return 0;
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * inv;
+        if (v < 0 || u + v > 1)
+            return 0;
+
+        double t = Util.alignZero((e2x * qx + e2y * qy + e2z * qz) * inv);
+        if (t <= 0 || Util.alignZero(t - maxDistance) > 0)
+            return 0;
+        return t;
+    }
+
+    /**
+     * Intersects a ray with a face by the Möller–Trumbore algorithm in single precision.
+     * The ray head is taken relative to the first vertex of the face in double precision
+     * before it is rounded, so the rounding error depends on the size of the face and the
+     * distance of the hit, not on the distance of the face from the origin. The distance
+     * of a face that is hit is calculated in double precision.
+     *
+     * @param face        the face
+     * @param maxDistance the maximum distance from the ray head
+     * @return the distance of the intersection from the ray head, or 0 if there is none in range
+     */
+    private double intersectFloat(int face, double ox, double oy, double oz,
+                                  double dx, double dy, double dz, double maxDistance) {
+        float[] vertices = floatVertices;
+        int a = 3 * faces[3 * face], b = 3 * faces[3 * face + 1], c = 3 * faces[3 * face + 2];
+        float ax = vertices[a], ay = vertices[a + 1], az = vertices[a + 2];
+        float e1x = vertices[b] - ax, e1y = vertices[b + 1] - ay, e1z = vertices[b + 2] - az;
+        float e2x = vertices[c] - ax, e2y = vertices[c + 1] - ay, e2z = vertices[c + 2] - az;
+        float fx = (float) dx, fy = (float) dy, fz = (float) dz;
+
+        // p = d x e2, the determinant is zero if the ray is parallel to the face
+        float px = fy * e2z - fz * e2y, py = fz * e2x - fx * e2z, pz = fx * e2y - fy * e2x;
+        float det = e1x * px + e1y * py + e1z * pz;
+        if (Util.isZero(det))
+            return 0;
+        float inv = 1 / det;
+
+        // barycentric coordinates of the hit point
+        float sx = (float) (ox - ax), sy = (float) (oy - ay), sz = (float) (oz - az);
+        float u = (sx * px + sy * py + sz * pz) * inv;
+        if (u < 0 || u > 1)
+            return 0;
+        float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        float v = (fx * qx + fy * qy + fz * qz) * inv;
+        if (v < 0 || u + v > 1)
+            return 0;
+
+        // the face is hit: its distance is calculated in double precision from the plane of
+        // the face, so that the hit point lies on the face within the tolerance of locating it
+        double vax = ax, vay = ay, vaz = az;
+        double d1x = vertices[b] - vax, d1y = vertices[b + 1] - vay, d1z = vertices[b + 2] - vaz;
+        double d2x = vertices[c] - vax, d2y = vertices[c + 1] - vay, d2z = vertices[c + 2] - vaz;
+        double nx = d1y * d2z - d1z * d2y, ny = d1z * d2x - d1x * d2z, nz = d1x * d2y - d1y * d2x;
+        double t = Util.alignZero(((vax - ox) * nx + (vay - oy) * ny + (vaz - oz) * nz)
+                / (dx * nx + dy * ny + dz * nz));
+        if (t <= 0 || Util.alignZero(t - maxDistance) > 0)
+            return 0;
+        return t;
+    }
+
+    /**
+     * Finds the face a point lies on
+     *
+     * @return the face nearest to the point among the faces that contain it within
+     *         the tolerance, or -1 if there is none
+     */
+    private int locate(double x, double y, double z) {
+        int[] stack = stacks.get();
+        int top = 0;
+        stack[top++] = 0;
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        while (top > 0) {
+            int node = stack[--top];
+            int b = node * BOX_SIZE;
+            if (x < bound(b) - ON_FACE || y < bound(b + 1) - ON_FACE || z < bound(b + 2) - ON_FACE
+                    || x > bound(b + 3) + ON_FACE || y > bound(b + 4) + ON_FACE || z > bound(b + 5) + ON_FACE)
+                continue;
+            int count = links[2 * node + 1];
+            if (count == 0) {
+                stack[top++] = node + 1;
+                stack[top++] = links[2 * node];
+                continue;
+            }
+            for (int i = links[2 * node], end = i + count; i < end; ++i) {
+                double distance = distance(order[i], x, y, z);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = order[i];
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Calculates the distance of a point from the plane of a face, if the point
+     * projects into the face
+     *
+     * @return the distance, or {@link Double#POSITIVE_INFINITY} if the point is outside the
+     *         face or farther than the tolerance, or the face is degenerate
+     */
+    private double distance(int face, double x, double y, double z) {
+        int a = 3 * faces[3 * face], b = 3 * faces[3 * face + 1], c = 3 * faces[3 * face + 2];
+        double ax = vertex(a), ay = vertex(a + 1), az = vertex(a + 2);
+        double e1x = vertex(b) - ax, e1y = vertex(b + 1) - ay, e1z = vertex(b + 2) - az;
+        double e2x = vertex(c) - ax, e2y = vertex(c + 1) - ay, e2z = vertex(c + 2) - az;
+        double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+        double area2 = nx * nx + ny * ny + nz * nz;
+        if (Util.isZero(area2))
+            return Double.POSITIVE_INFINITY;
+
+        double px = x - ax, py = y - ay, pz = z - az;
+        double distance = Math.abs(px * nx + py * ny + pz * nz) / Math.sqrt(area2);
+        if (distance > ON_FACE)
+            return Double.POSITIVE_INFINITY;
+        // barycentric coordinates of the projection, from the areas of the sub-triangles
+        double u = ((py * e2z - pz * e2y) * nx + (pz * e2x - px * e2z) * ny + (px * e2y - py * e2x) * nz) / area2;
+        double v = ((e1y * pz - e1z * py) * nx + (e1z * px - e1x * pz) * ny + (e1x * py - e1y * px) * nz) / area2;
+        return u < -ON_FACE || v < -ON_FACE || u + v > 1 + ON_FACE ? Double.POSITIVE_INFINITY : distance;
+    }
+
+    /**
+     * Slab test of the ray against the box of a node
+     *
+     * @return the distance at which the ray enters the box, or
+     *         {@link Double#POSITIVE_INFINITY} if it misses the box within range
+     */
+    private double enter(int node, double ox, double oy, double oz,
+                         double invX, double invY, double invZ, double maxDistance) {
+        int b = node * BOX_SIZE;
+        float[] floats = floatBounds;
+        if (floats != null)
+            return BoundingBox.intersect(floats[b], floats[b + 1], floats[b + 2], floats[b + 3], floats[b + 4],
+                    floats[b + 5], ox, oy, oz, invX, invY, invZ, maxDistance);
+        return BoundingBox.intersect(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4],
+                bounds[b + 5], ox, oy, oz, invX, invY, invZ, maxDistance);
+    }
+
+    /**
+     * Recursively builds the subtree of a range of faces in depth-first order, splitting
+     * the range at the median of the face centroids along their longest extent
+     *
+     * @param from  first position of the range in {@link #order} (inclusive)
+     * @param to    last position of the range in {@link #order} (exclusive)
+     * @param level the depth of the node
+     * @return the index of the node
+     */
+    private int build(int from, int to, int level) {
+        depth = Math.max(depth, level);
+        int node = nodeCount++;
+        if (nodeCount * 2 > links.length) {
+            links = Arrays.copyOf(links, links.length * 2);
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+
+        double[] box = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        double[] centroids = box.clone();
+        for (int i = from; i < to; ++i)
+            for (int axis = 0; axis < 3; ++axis) {
+                double center = 0;
+                for (int k = 0; k < 3; ++k) {
+                    double coordinate = vertex(3 * faces[3 * order[i] + k] + axis);
+                    box[axis] = Math.min(box[axis], coordinate);
+                    box[axis + 3] = Math.max(box[axis + 3], coordinate);
+                    center += coordinate;
+                }
+                centroids[axis] = Math.min(centroids[axis], center);
+                centroids[axis + 3] = Math.max(centroids[axis + 3], center);
+            }
+        System.arraycopy(box, 0, bounds, node * BOX_SIZE, BOX_SIZE);
+
+        int axis = 0;
+        for (int i = 1; i < 3; ++i)
+            if (centroids[i + 3] - centroids[i] > centroids[axis + 3] - centroids[axis])
+                axis = i;
+        // all the centroids coincide - no split can separate the faces
+        if (to - from <= MAX_LEAF_SIZE || centroids[axis + 3] == centroids[axis]) {
+            links[2 * node] = from;
+            links[2 * node + 1] = to - from;
+            return node;
+        }
+
+        int mid = (from + to) >>> 1;
+        select(from, to, mid, axis);
+        build(from, mid, level + 1);
+        // the children may grow the arrays, so the link is written after they are built
+        int second = build(mid, to, level + 1);
+        links[2 * node] = second;
+        links[2 * node + 1] = 0;
+        return node;
+    }
+
+    /**
+     * Reorders a range of faces so that the face at a position is the one that would be
+     * there if the range were sorted by centroid, with no greater centroid before it and
+     * no smaller one after it
+     *
+     * @param from     first position of the range (inclusive)
+     * @param to       last position of the range (exclusive)
+     * @param position the position to fix
+     * @param axis     the axis of the centroids
+     */
+    private void select(int from, int to, int position, int axis) {
+        int left = from, right = to - 1;
+        while (left < right) {
+            double pivot = centroid(order[(left + right) >>> 1], axis);
+            int i = left, j = right;
+            while (i <= j) {
+                while (centroid(order[i], axis) < pivot)
+                    ++i;
+                while (centroid(order[j], axis) > pivot)
+                    --j;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i++] = order[j];
+                    order[j--] = tmp;
+                }
+            }
+            if (position <= j)
+                right = j;
+            else if (position >= i)
+                left = i;
+            else
+                return;
+        }
+    }
+
+    /**
+     * Calculates three times the centroid coordinate of a face along an axis
+     */
+    private double centroid(int face, int axis) {
+        return vertex(3 * faces[3 * face] + axis) + vertex(3 * faces[3 * face + 1] + axis)
+                + vertex(3 * faces[3 * face + 2] + axis);
+    }
+}
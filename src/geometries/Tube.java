@@ -4,6 +4,7 @@ import java.util.List;
 import primitives.Point;
 import primitives.Util;
 import primitives.Vector;
+import primitives.VectorMath;
 import primitives.Ray;
 
 /**
@@ -36,14 +37,23 @@ public class Tube extends RadialGeometry {
     public Vector getNormal(Point point) {
         Point p0 = axisRay.head;
         Vector vector = axisRay.direction;
-        double t = vector.dotProduct(point.subtract(p0));
-        Point o = Util.isZero(t) ? p0 : p0.add(vector.scale(t));
-        return point.subtract(o);
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        double t = VectorMath.dot(vector.getX(), vector.getY(), vector.getZ(),
+                x - p0.getX(), y - p0.getY(), z - p0.getZ());
+        // the projection of the point on the axis
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        if (!Util.isZero(t)) {
+            ox += vector.getX() * t;
+            oy += vector.getY() * t;
+            oz += vector.getZ() * t;
+        }
+        // throws only for a point on the axis, which has no normal
+        return new Vector(x - ox, y - oy, z - oz);
     }
 
 
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
         return null;
     }
 
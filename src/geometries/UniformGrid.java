@@ -0,0 +1,250 @@
+package geometries;
+
+import primitives.Ray;
+
+/**
+ * Uniform grid over a collection of geometries, traversed with 3D-DDA.
+ * The bounds of the shapes are divided into equal cells, and each cell lists the
+ * shapes whose boxes overlap it. A ray marches through the cells it crosses, in
+ * order, and stops as soon as the next cell starts beyond the closest hit.
+ * On dense, evenly spread scenes (fields of small spheres) it is cheaper to build
+ * and to traverse than a hierarchy.
+ * The resolution is chosen automatically from the number of shapes and the shape
+ * of the bounds, unless it is set explicitly.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public class UniformGrid extends AccelerationStructure {
+    /** Cells per cube root of the shape count along the longest axis */
+    private static final double DENSITY = 3;
+    /** Maximum number of cells along an axis */
+    private static final int MAX_RESOLUTION = 128;
+
+    /** Resolution requested by the user, 0 for automatic */
+    private int requestedResolution = 0;
+
+    /** Bounds of the grid */
+    private BoundingBox bounds;
+    /** Number of cells along each axis */
+    private int nx, ny, nz;
+    /** Size of a cell along each axis */
+    private double cellX, cellY, cellZ;
+    /** The indexed shapes */
+    private Intersectable[] shapes = new Intersectable[0];
+    /** Start of the shape list of each cell in {@link #cellShapes}, with an extra end entry */
+    private int[] cellStart;
+    /** The shape indices of all the cells, one cell after the other */
+    private int[] cellShapes;
+
+    /**
+     * Per-thread marks of the shapes already visited by the current ray.
+     * A shape may overlap several cells, and must be visited only once per ray.
+     */
+    private final ThreadLocal<Mailbox> mailbox = ThreadLocal.withInitial(Mailbox::new);
+
+    /**
+     * default constructor
+     */
+    public UniformGrid() {
+        super();
+    }
+
+    /**
+     * construct a grid with starting shapes
+     *
+     * @param geometries list of Intersectables the grid will contain
+     */
+    public UniformGrid(Intersectable... geometries) {
+        super();
+        add(geometries);
+    }
+
+    /**
+     * Sets the number of cells along the longest axis of the bounds.
+     * The other axes get cells of about the same size.
+     *
+     * @param resolution number of cells, 0 to choose it automatically
+     * @return this object
+     */
+    public UniformGrid setResolution(int resolution) {
+        if (resolution < 0)
+            throw new IllegalArgumentException("Grid resolution cannot be negative");
+        requestedResolution = resolution;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Returns the number of cells along each axis, building the grid if needed
+     *
+     * @return the number of cells along x, y and z
+     */
+    public int[] getResolution() {
+        ensureBuilt();
+        return new int[]{nx, ny, nz};
+    }
+
+    @Override
+    protected void build(Intersectable[] shapes, BoundingBox[] boxes) {
+        this.shapes = shapes;
+        if (shapes.length == 0) {
+            bounds = null;
+            return;
+        }
+
+        BoundingBox box = boxes[0];
+        for (BoundingBox b : boxes)
+            box = box.union(b);
+        bounds = box;
+
+        double dx = box.maxX - box.minX, dy = box.maxY - box.minY, dz = box.maxZ - box.minZ;
+        double maxExtent = Math.max(dx, Math.max(dy, dz));
+        int resolution = requestedResolution > 0 ? requestedResolution
+                : (int) Math.round(DENSITY * Math.cbrt(shapes.length));
+        double cellsPerUnit = maxExtent > 0 ? resolution / maxExtent : 0;
+        nx = resolution(dx, cellsPerUnit);
+        ny = resolution(dy, cellsPerUnit);
+        nz = resolution(dz, cellsPerUnit);
+        cellX = dx / nx;
+        cellY = dy / ny;
+        cellZ = dz / nz;
+
+        // count the shapes of each cell, then fill the cells
+        cellStart = new int[nx * ny * nz + 1];
+        for (BoundingBox b : boxes)
+            forEachCell(b, cell -> ++cellStart[cell + 1]);
+        for (int i = 1; i < cellStart.length; ++i)
+            cellStart[i] += cellStart[i - 1];
+        cellShapes = new int[cellStart[cellStart.length - 1]];
+        int[] fill = cellStart.clone();
+        for (int i = 0; i < boxes.length; ++i) {
+            int shape = i;
+            forEachCell(boxes[i], cell -> cellShapes[fill[cell]++] = shape);
+        }
+    }
+
+    /**
+     * Calculates the number of cells along an axis
+     *
+     * @param extent       the extent of the bounds along the axis
+     * @param cellsPerUnit the number of cells per unit of length
+     * @return the number of cells, at least 1
+     */
+    private static int resolution(double extent, double cellsPerUnit) {
+        return Math.max(1, Math.min(MAX_RESOLUTION, (int) Math.round(extent * cellsPerUnit)));
+    }
+
+    /**
+     * Calls an action for each cell overlapped by a box
+     *
+     * @param box    the box
+     * @param action the action, given the cell index
+     */
+    private void forEachCell(BoundingBox box, java.util.function.IntConsumer action) {
+        int x0 = cell(box.minX, bounds.minX, cellX, nx), x1 = cell(box.maxX, bounds.minX, cellX, nx);
+        int y0 = cell(box.minY, bounds.minY, cellY, ny), y1 = cell(box.maxY, bounds.minY, cellY, ny);
+        int z0 = cell(box.minZ, bounds.minZ, cellZ, nz), z1 = cell(box.maxZ, bounds.minZ, cellZ, nz);
+        for (int z = z0; z <= z1; ++z)
+            for (int y = y0; y <= y1; ++y)
+                for (int x = x0; x <= x1; ++x)
+                    action.accept(index(x, y, z));
+    }
+
+    /**
+     * Finds the cell of a coordinate along an axis
+     *
+     * @param coordinate the coordinate
+     * @param min        the lower bound of the grid along the axis
+     * @param size       the cell size along the axis
+     * @param n          the number of cells along the axis
+     * @return the cell, clamped to the grid
+     */
+    private static int cell(double coordinate, double min, double size, int n) {
+        if (size <= 0)
+            return 0;
+        return Math.max(0, Math.min(n - 1, (int) ((coordinate - min) / size)));
+    }
+
+    /**
+     * Calculates the index of a cell in the cell arrays
+     */
+    private int index(int x, int y, int z) {
+        return (z * ny + y) * nx + x;
+    }
+
+    @Override
+    protected double traverse(Ray ray, double maxDistance, ShapeVisitor visitor) {
+        if (bounds == null)
+            return maxDistance;
+        Probe probe = new Probe(ray);
+        double tEnter = probe.enter(bounds, maxDistance);
+        if (tEnter == Double.POSITIVE_INFINITY)
+            return maxDistance;
+        if (Double.isNaN(tEnter))
+            tEnter = 0;
+
+        // the cell where the ray enters the grid
+        double dx = ray.direction.getX(), dy = ray.direction.getY(), dz = ray.direction.getZ();
+        int x = cell(probe.ox + dx * tEnter, bounds.minX, cellX, nx);
+        int y = cell(probe.oy + dy * tEnter, bounds.minY, cellY, ny);
+        int z = cell(probe.oz + dz * tEnter, bounds.minZ, cellZ, nz);
+
+        // for each axis: the step between cells, the distance to the next cell boundary,
+        // and the distance between consequent boundaries
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1, stepZ = dz > 0 ? 1 : -1;
+        double nextX = boundary(x, stepX, bounds.minX, cellX, probe.ox, probe.invX);
+        double nextY = boundary(y, stepY, bounds.minY, cellY, probe.oy, probe.invY);
+        double nextZ = boundary(z, stepZ, bounds.minZ, cellZ, probe.oz, probe.invZ);
+        double deltaX = Math.abs(cellX * probe.invX);
+        double deltaY = Math.abs(cellY * probe.invY);
+        double deltaZ = Math.abs(cellZ * probe.invZ);
+
+        Mailbox visited = mailbox.get();
+        visited.next(shapes.length);
+        while (true) {
+            int cell = index(x, y, z);
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; ++i) {
+                int shape = cellShapes[i];
+                if (visited.mark(shape)) {
+                    maxDistance = visitor.visit(shapes[shape], maxDistance);
+                    if (maxDistance == STOP)
+                        return STOP;
+                }
+            }
+
+            // step to the neighbour cell through the nearest boundary, unless it
+            // starts beyond the distance of interest or outside the grid
+            if (nextX <= nextY && nextX <= nextZ) {
+                if (nextX > maxDistance || (x += stepX) < 0 || x >= nx)
+                    return maxDistance;
+                nextX += deltaX;
+            } else if (nextY <= nextZ) {
+                if (nextY > maxDistance || (y += stepY) < 0 || y >= ny)
+                    return maxDistance;
+                nextY += deltaY;
+            } else {
+                if (nextZ > maxDistance || (z += stepZ) < 0 || z >= nz)
+                    return maxDistance;
+                nextZ += deltaZ;
+            }
+        }
+    }
+
+    /**
+     * Calculates the distance along the ray to the next cell boundary on an axis
+     *
+     * @param cell the current cell along the axis
+     * @param step the direction of the ray along the axis
+     * @param min  the lower bound of the grid along the axis
+     * @param size the cell size along the axis
+     * @param o    the ray head coordinate
+     * @param inv  the inverse of the ray direction coordinate
+     * @return the distance, infinite if the ray is parallel to the axis boundaries
+     */
+    private static double boundary(int cell, int step, double min, double size, double o, double inv) {
+        if (Double.isInfinite(inv))
+            return Double.POSITIVE_INFINITY;
+        double plane = min + (step > 0 ? cell + 1 : cell) * size;
+        return (plane - o) * inv;
+    }
+}
@@ -6,6 +6,7 @@ package lighting;
 import primitives.Color;
 import primitives.Point;
 import primitives.Vector;
+import primitives.VectorMath;
 
 /**
  * light that starts at given point without direction
@@ -72,11 +73,12 @@ public class PointLight extends Light implements LightSource {
     @Override
     public Vector getL(Point p)
     {
-        if (p.equals(position))
+        double x = p.getX() - position.getX(), y = p.getY() - position.getY(), z = p.getZ() - position.getZ();
+        if (VectorMath.isZero(x, y, z))
         {
             return null;
         }
-        return p.subtract(position).normalize();
+        return VectorMath.normalized(x, y, z);
     }
 
     /**
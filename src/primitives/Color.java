@@ -12,7 +12,7 @@ public class Color {
      * The internal fields maintain RGB components as double numbers from 0 to
      * whatever...
      */
-    private final Double3     rgb;
+    final Double3     rgb;
 
     /** Black color = (0,0,0) */
     public static final Color BLACK = new Color();
@@ -126,4 +126,15 @@ public class Color {
                 (Math.abs(this.rgb.d3-color.rgb.d3)<= 2);
     }
 
+    /**
+     * The largest difference between a component of this color and the same component
+     * of another color
+     * @param color the other color
+     * @return the largest difference of the components
+     */
+    public double maxDifference(Color color) {
+        return Math.max(Math.abs(rgb.d1 - color.rgb.d1),
+                Math.max(Math.abs(rgb.d2 - color.rgb.d2), Math.abs(rgb.d3 - color.rgb.d3)));
+    }
+
 }
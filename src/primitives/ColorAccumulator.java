@@ -0,0 +1,98 @@
+package primitives;
+
+/**
+ * Mutable sum of colors, for averaging samples and summing light contributions
+ * without creating a new {@link Color} for every addition.
+ * The components are added in place, in the same order as chained {@link Color#add}
+ * and {@link Color#scale} calls would add them, and a single color is created from
+ * the sum at the end. An accumulator is not thread safe; each thread (or each call)
+ * uses its own.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public final class ColorAccumulator {
+    /** The sums of the red, green and blue components */
+    private double r, g, b;
+
+    /**
+     * Creates an accumulator starting at black
+     */
+    public ColorAccumulator() {
+    }
+
+    /**
+     * Creates an accumulator starting at a given color
+     *
+     * @param color the initial color
+     */
+    public ColorAccumulator(Color color) {
+        set(color);
+    }
+
+    /**
+     * Restarts the sum at a given color, so the accumulator can be reused
+     *
+     * @param color the initial color
+     * @return this accumulator
+     */
+    public ColorAccumulator set(Color color) {
+        r = color.rgb.d1;
+        g = color.rgb.d2;
+        b = color.rgb.d3;
+        return this;
+    }
+
+    /**
+     * Adds a color to the sum
+     *
+     * @param color the color to add
+     * @return this accumulator
+     */
+    public ColorAccumulator add(Color color) {
+        r += color.rgb.d1;
+        g += color.rgb.d2;
+        b += color.rgb.d3;
+        return this;
+    }
+
+    /**
+     * Adds a color scaled per component to the sum: color * (k * factor), the same as
+     * {@code add(color.scale(k.scale(factor)))}
+     *
+     * @param color  the color to add
+     * @param k      the scale factor per component
+     * @param factor the common scale factor
+     * @return this accumulator
+     * @throws IllegalArgumentException if a scale factor is negative
+     */
+    public ColorAccumulator add(Color color, Double3 k, double factor) {
+        double kr = k.d1 * factor, kg = k.d2 * factor, kb = k.d3 * factor;
+        if (kr < 0.0 || kg < 0.0 || kb < 0.0)
+            throw new IllegalArgumentException("Can't scale a color by a negative number");
+        r += color.rgb.d1 * kr;
+        g += color.rgb.d2 * kg;
+        b += color.rgb.d3 * kb;
+        return this;
+    }
+
+    /**
+     * Creates the color of the sum
+     *
+     * @return the sum as a color
+     */
+    public Color toColor() {
+        return new Color(r, g, b);
+    }
+
+    /**
+     * Creates the color of the average of the sum, the same as {@code toColor().reduce(count)}
+     *
+     * @param count the number of summed colors
+     * @return the average color
+     * @throws IllegalArgumentException if count is lower than 1
+     */
+    public Color average(int count) {
+        if (count < 1) throw new IllegalArgumentException("Can't scale a color by a by a number lower than 1");
+        return new Color(r / count, g / count, b / count);
+    }
+}
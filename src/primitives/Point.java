@@ -7,9 +7,9 @@ public class Point {
     public static final Point ZERO = new Point(0, 0,0);
 
     /**
-     * Field representing the coordinates of the point as a Double3 object.
+     * The coordinates of the point, held inline rather than in a separate Double3 object.
      */
-    protected final Double3 xyz;
+    protected final double x, y, z;
 
     /**
      * Moves a point on the view plane according to the given displacements.
@@ -35,7 +35,9 @@ public class Point {
      * @param z The z-coordinate of the point.
      */
     public Point(double x, double y, double z) {
-        xyz = new Double3(x, y, z);
+        this.x = x;
+        this.y = y;
+        this.z = z;
     }
 
     /**
@@ -44,11 +46,43 @@ public class Point {
      * @param xyz The Double3 object representing the point's coordinates.
      */
     public Point(Double3 xyz) {
-        this.xyz = xyz;
+        this(xyz.d1, xyz.d2, xyz.d3);
     }
 
+    /**
+     * Returns the coordinates of the point as a Double3 object.
+     *
+     * @return a new Double3 holding the coordinates.
+     */
     public Double3 getXyz() {
-        return xyz;
+        return new Double3(x, y, z);
+    }
+
+    /**
+     * Returns the x-coordinate of the point.
+     *
+     * @return The x-coordinate.
+     */
+    public final double getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of the point.
+     *
+     * @return The y-coordinate.
+     */
+    public final double getY() {
+        return y;
+    }
+
+    /**
+     * Returns the z-coordinate of the point.
+     *
+     * @return The z-coordinate.
+     */
+    public final double getZ() {
+        return z;
     }
     /**
      * Checks if two points are equal by comparing their coordinates.
@@ -60,7 +94,9 @@ public class Point {
     public boolean equals(Object obj) {
         if (this == obj) return true;
         return (obj instanceof Point other)
-                && this.xyz.equals(other.xyz);
+                && Util.isZero(x - other.x)
+                && Util.isZero(y - other.y)
+                && Util.isZero(z - other.z);
     }
 
     /**
@@ -70,7 +106,7 @@ public class Point {
      */
     @Override
     public String toString() {
-        return "Point [xyz=" + xyz + "]";
+        return "Point [xyz=(" + x + "," + y + "," + z + ")]";
     }
 
     /**
@@ -80,7 +116,7 @@ public class Point {
      * @return A new Point object representing the sum of the point and the vector.
      */
     public Point add(Vector vector) {
-        return new Point(xyz.add(vector.xyz));
+        return new Point(x + vector.x, y + vector.y, z + vector.z);
     }
 
     /**
@@ -91,9 +127,24 @@ public class Point {
      * @throws IllegalArgumentException If the two points are identical, resulting in a zero vector.
      */
     public Vector subtract(Point otherPoint) {
-        if(xyz.equals(otherPoint.xyz))
+        double dx = x - otherPoint.x, dy = y - otherPoint.y, dz = z - otherPoint.z;
+        if (VectorMath.isZero(dx, dy, dz))
             throw new IllegalArgumentException("Error: Subtraction of two equal vectors results a zero vector");
-        return new Vector(xyz.subtract(otherPoint.xyz));
+        return new Vector(dx, dy, dz);
+    }
+
+    /**
+     * Subtracts another point from this point like {@link #subtract(Point)}, without throwing
+     * for equal points. Intended for the intersection and normal calculations, where equal
+     * points are a degenerate case to handle rather than an error.
+     *
+     * @param otherPoint The point to subtract.
+     * @return A new Vector object representing the difference between this point and the other point,
+     *         or null if the two points are identical.
+     */
+    public Vector subtractOrNull(Point otherPoint) {
+        double dx = x - otherPoint.x, dy = y - otherPoint.y, dz = z - otherPoint.z;
+        return VectorMath.isZero(dx, dy, dz) ? null : new Vector(dx, dy, dz);
     }
 
     /**
@@ -103,8 +154,10 @@ public class Point {
      * @return The squared distance between the two points.
      */
     public double distanceSquared(Point otherPoint) {
-        Double3 difference = xyz.subtract(otherPoint.xyz);
-        return difference.d1 * difference.d1 + difference.d2 * difference.d2 + difference.d3 * difference.d3;
+        double dx = x - otherPoint.x;
+        double dy = y - otherPoint.y;
+        double dz = z - otherPoint.z;
+        return dx * dx + dy * dy + dz * dz;
     }
 
     /**
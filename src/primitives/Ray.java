@@ -23,7 +23,8 @@ public class Ray {
      * Constructor that initializes the ray with a starting point (head) and a direction vector.
      *
      * @param head The Point object representing the starting point of the ray.
-     * @param direction The Vector object representing the direction of the ray. The direction vector is normalized before being assigned.
+     * @param direction The Vector object representing the direction of the ray. The direction vector is normalized before being assigned,
+     *                  unless it is already known to be normalized.
      */
     public Ray(Point head, Vector direction) {
         this.head = head;
@@ -38,7 +39,9 @@ public class Ray {
      */
     public Ray(Point p0, Vector dir, Vector normal) {
         double nv = normal.dotProduct(dir);
-        this.head = p0.add(normal.scale(nv > 0 ? DELTA : -DELTA));
+        double delta = nv > 0 ? DELTA : -DELTA;
+        this.head = new Point(p0.getX() + normal.getX() * delta, p0.getY() + normal.getY() * delta,
+                p0.getZ() + normal.getZ() * delta);
         this.direction = dir.normalize();
     }
 
@@ -49,7 +52,8 @@ public class Ray {
      * @return new Point3D
      */
     public Point getPoint(double t) {
-        return Util.isZero(t) ? head : head.add(direction.scale(t));
+        return Util.isZero(t) ? head : new Point(head.getX() + direction.getX() * t,
+                head.getY() + direction.getY() * t, head.getZ() + direction.getZ() * t);
     }
 
     /**
@@ -95,9 +99,9 @@ public class Ray {
         if (geoPoints == null || geoPoints.size() == 0)
             return null;
         GeoPoint closestGeoPoint = geoPoints.get(0);
-        double minDistance = head.distanceSquared(closestGeoPoint.point);
+        double minDistance = distanceSquared(closestGeoPoint);
         for (GeoPoint geoPoint : geoPoints) {
-            double currentDistance = head.distanceSquared(geoPoint.point);
+            double currentDistance = distanceSquared(geoPoint);
             if (currentDistance < minDistance) {
                 minDistance = currentDistance;
                 closestGeoPoint = geoPoint;
@@ -105,4 +109,15 @@ public class Ray {
         }
         return closestGeoPoint;
     }
+
+    /**
+     * Gets the squared distance of an intersection from the head of the ray, from the
+     * distance found by the intersection if it is known
+     *
+     * @param geoPoint the intersection
+     * @return the squared distance
+     */
+    private double distanceSquared(GeoPoint geoPoint) {
+        return Double.isNaN(geoPoint.t) ? head.distanceSquared(geoPoint.point) : geoPoint.t * geoPoint.t;
+    }
 }
@@ -3,9 +3,15 @@ package primitives;
 /**
  * This class represents a 3D vector using linear algebra methods. It inherits from the `Point` class
  * which represents a point in 3D space. A vector has a magnitude and direction.
+ * A vector remembers whether it is known to be of unit length (the result of a normalization),
+ * so that normalizing it again, e.g. when it becomes the direction of a ray, costs nothing.
  */
-public class Vector extends Point{
+public final class Vector extends Point{
 
+    /**
+     * Whether the vector is known to be normalized, so {@link #normalize()} returns it as is.
+     */
+    private final boolean normalized;
 
     /**
      * Constructor that initializes the vector with the specified x, y, and z components.
@@ -16,10 +22,24 @@ public class Vector extends Point{
      * @throws IllegalArgumentException If the resulting vector is zero (all components are zero).
      */
     public Vector(double x, double y, double z) {
+        this(x, y, z, false);
+    }
+
+    /**
+     * Constructor for vectors whose length is known by the caller.
+     *
+     * @param x          The x-component of the vector.
+     * @param y          The y-component of the vector.
+     * @param z          The z-component of the vector.
+     * @param normalized Whether the vector is known to be of unit length.
+     * @throws IllegalArgumentException If the resulting vector is zero (all components are zero).
+     */
+    Vector(double x, double y, double z, boolean normalized) {
         super(x,y,z);
-        if (this.xyz.equals(Double3.ZERO)) {
+        if (VectorMath.isZero(x, y, z)) {
             throw new IllegalArgumentException("Vector cannot be zero");
         }
+        this.normalized = normalized;
     }
 
     /**
@@ -29,10 +49,7 @@ public class Vector extends Point{
      * @throws IllegalArgumentException If the resulting vector is zero (all components are zero).
      */
     public Vector (Double3 xyz) {
-        super(xyz);
-        if(xyz.equals(Double3.ZERO)) {
-            throw new IllegalArgumentException("Vector cannot be zero");
-        }
+        this(xyz.d1, xyz.d2, xyz.d3);
     }
 
     /**
@@ -67,10 +84,14 @@ public class Vector extends Point{
      * @throws IllegalArgumentException If adding the vectors results in a zero vector (opposite directions).
      */
     public Vector add(Vector vec) {
-        if(this.equals(vec.scale(-1))) {
+        double sx = x + vec.x;
+        double sy = y + vec.y;
+        double sz = z + vec.z;
+        // the vectors are opposite exactly when their sum is zero
+        if (VectorMath.isZero(sx, sy, sz)) {
             throw new IllegalArgumentException("Error: Adding opposite vectors gives the zero vector");
         }
-        return new Vector(this.xyz.add(vec.xyz));
+        return new Vector(sx, sy, sz);
     }
 
 
@@ -82,7 +103,8 @@ public class Vector extends Point{
      * @return A new Vector object representing the scaled vector.
      */
     public Vector scale(double scalar) {
-        return new Vector(this.xyz.scale(scalar));
+        // flipping a unit vector keeps it a unit vector
+        return new Vector(x * scalar, y * scalar, z * scalar, normalized && (scalar == 1 || scalar == -1));
     }
 
     /**
@@ -92,7 +114,7 @@ public class Vector extends Point{
      * @return The dot product of the two vectors.
      */
     public double dotProduct(Vector vec) {
-        return this.xyz.d1 * vec.xyz.d1 + this.xyz.d2 * vec.xyz.d2 + this.xyz.d3 * vec.xyz.d3;
+        return x * vec.x + y * vec.y + z * vec.z;
     }
 
     /**
@@ -102,10 +124,7 @@ public class Vector extends Point{
      * @return A new Vector object representing the cross product of the two vectors.
      */
     public Vector crossProduct(Vector vec) {
-       double x = this.xyz.d2 * vec.xyz.d3 - this.xyz.d3 * vec.xyz.d2;
-       double y = this.xyz.d3 * vec.xyz.d1 - this.xyz.d1 * vec.xyz.d3;
-       double z = this.xyz.d1 * vec.xyz.d2 - this.xyz.d2 * vec.xyz.d1;
-       return new Vector(x, y, z);
+       return new Vector(y * vec.z - z * vec.y, z * vec.x - x * vec.z, x * vec.y - y * vec.x);
     }
 
     /**
@@ -129,12 +148,26 @@ public class Vector extends Point{
 
     /**
      * Normalizes the vector by dividing it by its length, resulting in a unit vector with a magnitude of 1.
-     * A new vector is created to avoid modifying the original vector.
+     * A new vector is created to avoid modifying the original vector, unless this vector is
+     * already known to be normalized, in which case it is returned as is.
      *
-     * @return A new Vector object representing the normalized vector.
+     * @return A Vector object representing the normalized vector.
      * @throws ArithmeticException If the vector length is zero (division by zero).
      */
     public Vector normalize() {
-        return new Vector(this.xyz.reduce(this.length()));
+        if (normalized)
+            return this;
+        double length = length();
+        return new Vector(x / length, y / length, z / length, true);
+    }
+
+    /**
+     * Checks whether the vector is known to be of unit length, i.e. it is the result of a
+     * normalization, so normalizing it again is free.
+     *
+     * @return true if the vector is known to be normalized
+     */
+    public boolean isNormalized() {
+        return normalized;
     }
 }
@@ -0,0 +1,116 @@
+package primitives;
+
+/**
+ * Static 3D math kernels on raw coordinates, for the hot paths of ray tracing.
+ * The kernels take the coordinates of points and vectors as separate {@code double}
+ * parameters and return scalars, so an intersection test or a shading formula can be
+ * evaluated without creating an intermediate {@link Point} or {@link Vector} for every
+ * step. They use the same arithmetic, in the same order, as the methods of
+ * {@link Vector}, so replacing one by the other does not change any result.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public final class VectorMath {
+    /** Don't let anyone instantiate this class. */
+    private VectorMath() {}
+
+    /**
+     * Checks whether all the coordinates of a vector are [almost] zero,
+     * like the zero vector test of {@link Vector}
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return true if the vector is zero
+     */
+    public static boolean isZero(double x, double y, double z) {
+        return Util.isZero(x) && Util.isZero(y) && Util.isZero(z);
+    }
+
+    /**
+     * Calculates the dot product of two vectors
+     *
+     * @return a·b
+     */
+    public static double dot(double ax, double ay, double az, double bx, double by, double bz) {
+        return ax * bx + ay * by + az * bz;
+    }
+
+    /**
+     * Calculates the squared length of a vector
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the squared length
+     */
+    public static double lengthSquared(double x, double y, double z) {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * Calculates the triple product d·(u×v): on which side of the plane spanned by u and v
+     * the vector d passes. Used for the edge tests of triangles, with u and v the vectors
+     * from the ray head to the ends of an edge.
+     *
+     * @return the triple product, or NaN if u×v is the zero vector
+     */
+    public static double side(double dx, double dy, double dz,
+                              double ux, double uy, double uz, double vx, double vy, double vz) {
+        double cx = uy * vz - uz * vy;
+        double cy = uz * vx - ux * vz;
+        double cz = ux * vy - uy * vx;
+        if (isZero(cx, cy, cz))
+            return Double.NaN;
+        return dx * cx + dy * cy + dz * cz;
+    }
+
+    /**
+     * Calculates the dot product of d with the normalized cross product u×v: the cosine of
+     * the angle between d and the normal of the plane spanned by u and v. Used for the
+     * edge tests of polygons.
+     *
+     * @return the dot product, or NaN if u×v is the zero vector
+     */
+    public static double normalizedSide(double dx, double dy, double dz,
+                                        double ux, double uy, double uz, double vx, double vy, double vz) {
+        double cx = uy * vz - uz * vy;
+        double cy = uz * vx - ux * vz;
+        double cz = ux * vy - uy * vx;
+        if (isZero(cx, cy, cz))
+            return Double.NaN;
+        double length = Math.sqrt(lengthSquared(cx, cy, cz));
+        return cx / length * dx + cy / length * dy + cz / length * dz;
+    }
+
+    /**
+     * Creates the unit vector in the direction of a vector given by its coordinates,
+     * with a single allocation
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the normalized vector
+     * @throws IllegalArgumentException if the vector is zero
+     */
+    public static Vector normalized(double x, double y, double z) {
+        if (isZero(x, y, z))
+            throw new IllegalArgumentException("Vector cannot be zero");
+        double length = Math.sqrt(lengthSquared(x, y, z));
+        return new Vector(x / length, y / length, z / length, true);
+    }
+
+    /**
+     * Reflects a vector around a normal: v - 2(v·n)n.
+     * The reflection of a normalized vector around a normalized normal is normalized as well.
+     *
+     * @param v the reflected vector
+     * @param n the unit normal
+     * @param vn the dot product v·n
+     * @return the reflected vector
+     */
+    public static Vector reflect(Vector v, Vector n, double vn) {
+        double k = 2 * vn;
+        return new Vector(v.x - n.x * k, v.y - n.y * k, v.z - n.z * k, v.isNormalized() && n.isNormalized());
+    }
+}
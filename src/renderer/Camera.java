@@ -5,6 +5,8 @@ import primitives.Vector;
 import primitives.Ray;
 import primitives.Util;
 import primitives.Color;
+import primitives.ColorAccumulator;
+import java.time.Duration;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.MissingResourceException;
@@ -25,6 +27,13 @@ public class Camera implements Cloneable {
     private int numOfThreads = 1;
     private Point centerPoint;
     private boolean adaptive = false;
+    private boolean packetTracing = true;
+    private boolean forkJoin = false;
+    private ProgressListener progressListener = null;
+    private Duration timeBudget = null;
+    private int progressiveSamples = 0;
+    private double convergence = 0;
+    private SnapshotListener snapshotListener = null;
 
     /**
      * set the adaptive
@@ -35,6 +44,80 @@ public class Camera implements Cloneable {
         return this;
     }
 
+    /**
+     * set the packet tracing mode: the anti-aliasing rays of a pixel are traced
+     * in packets of coherent rays instead of one by one
+     * @return the Camera object
+     */
+    public Camera setPacketTracing(boolean packetTracing) {
+        this.packetTracing = packetTracing;
+        return this;
+    }
+
+    /**
+     * set the fork/join render mode: the image is split recursively into small regions
+     * rendered by the tasks of a fork/join pool, which balances pixels of very different
+     * costs, instead of tiles handed out to the threads in order
+     * @return the Camera object
+     */
+    public Camera setForkJoin(boolean forkJoin) {
+        this.forkJoin = forkJoin;
+        return this;
+    }
+
+    /**
+     * set the listener of the progress of the renders, null for none
+     * @return the Camera object
+     */
+    public Camera setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * set the time budget of a render, null for none: the pixels not rendered within the
+     * budget are rendered by a single ray through their center instead
+     * @return the Camera object
+     */
+    public Camera setTimeBudget(Duration timeBudget) {
+        this.timeBudget = timeBudget;
+        return this;
+    }
+
+    /**
+     * set the progressive render mode, 0 for a regular render: the image is rendered in
+     * passes, pass 1 by a single ray per pixel and each later pass doubling the rays per
+     * pixel, through more strata of the grid of the anti-aliasing rays, and the pixels are
+     * the average of their rays so far. The render stops after the given number of rays per
+     * pixel, at most all the anti-aliasing rays, or earlier when it converges or runs out of
+     * its time budget, as a regular render does. The adaptive mode does not apply.
+     * @return the Camera object
+     */
+    public Camera setProgressive(int samples) {
+        this.progressiveSamples = samples;
+        return this;
+    }
+
+    /**
+     * set the convergence threshold of the progressive render mode, 0 for none: the render
+     * stops after a pass that changed no color component of a pixel by as much as it
+     * @return the Camera object
+     */
+    public Camera setConvergence(double threshold) {
+        this.convergence = threshold;
+        return this;
+    }
+
+    /**
+     * set the listener of the image after each pass of the progressive render mode, null
+     * for none
+     * @return the Camera object
+     */
+    public Camera setSnapshotListener(SnapshotListener snapshotListener) {
+        this.snapshotListener = snapshotListener;
+        return this;
+    }
+
     public Camera setRaynum(int nRays) {
         antiAliasing = nRays;
         return this;
@@ -330,16 +413,10 @@ public class Camera implements Cloneable {
                 throw new MissingResourceException("ImageWriter or RayTracerBase is missing", CAMERA_CLASS_NAME, MISSING_DATA_DESCRIPTION);
             }
 
-            // Check if vectors are normalized, normalize them if necessary
-            if (camera.vUp.length() != 1) {
-                camera.vUp = camera.vUp.normalize();
-            }
-            if (camera.vTo.length() != 1) {
-                camera.vTo = camera.vTo.normalize();
-            }
-            if (camera.vRight.length() != 1) {
-                camera.vRight = camera.vRight.normalize();
-            }
+            // Normalize the vectors if necessary; vectors that are already normalized are kept as is
+            camera.vUp = camera.vUp.normalize();
+            camera.vTo = camera.vTo.normalize();
+            camera.vRight = camera.vRight.normalize();
 
             // Return a cloned Camera object
             return camera.clone();
@@ -367,57 +444,96 @@ public class Camera implements Cloneable {
 //
 
     /**
-     * Renders the image using the current image writer and ray tracer.
+     * Renders the image using the current image writer and ray tracer, and waits for
+     * the rendering to finish.
      * The ray tracer find the color and the image writer colors the pixels
      *
      * @return This camera instance.
      * @throws UnsupportedOperationException If either the image writer or the ray tracer is not initialized.
      */
     public Camera renderImage() {
+        return startRender().await();
+    }
+
+    /**
+     * Starts rendering the image using the current image writer and ray tracer, without
+     * waiting for the rendering to finish. The camera may render again once it is done.
+     * The time budget, if set, counts from here.
+     *
+     * @return the session of the render, which tells its progress and completion
+     */
+    public RenderSession startRender() {
+        long start = System.nanoTime();
         // Get the number of pixels in X and Y directions from the image writer
         int nX = imageWriter.getNx();
         int nY = imageWriter.getNy();
-        // Initialize the Pixel class with the number of rows, columns, and total pixels
-        Pixel.initialize(nY, nX, 1);
-
+        rayTracer.prepare();
+        if (progressiveSamples > 0)
+            return startProgressiveRender(start, nX, nY);
+        // Hand out the pixels to the threads in tiles, or in regions split by fork/join tasks
+        TileScheduler scheduler = new TileScheduler(nX, nY, TileScheduler.TILE_SIZE, progressListener);
+        if (timeBudget != null)
+            scheduler.setDeadline(start + timeBudget.toNanos(), centerRayRenderer(nX, nY));
+
+        TileScheduler.PixelRenderer renderer;
         // Check if adaptive mode is enabled
         if (!adaptive) {
             // Render the image using regular super-sampling (non-adaptive)
-            // Create multiple threads to process the pixels in parallel
-            while (numOfThreads-- > 0) {
-                new Thread(() -> {
-                    // Iterate over each pixel in the image
-                    for (Pixel pixel = new Pixel(); pixel.nextPixel(); Pixel.pixelDone()) {
-                        // Construct rays for the current pixel and trace them using the ray tracer
-                        List<Ray> rays = constructRays(nX, nY, pixel.col, pixel.row);
-                        Color pixelColor = rayTracer.TraceRays(rays);
-                        // Write the pixel color to the image writer
-                        imageWriter.writePixel(pixel.col, pixel.row, pixelColor);
-                    }
-                }).start();
-            }
-            // Wait for all the threads to finish processing the pixels
-            Pixel.waitToFinish();
+            renderer = (col, row) -> {
+                // Construct rays for the current pixel and trace them using the ray tracer
+                List<Ray> rays = constructRays(nX, nY, col, row);
+                Color pixelColor = packetTracing ? rayTracer.traceRayPackets(rays)
+                        : rayTracer.TraceRays(rays);
+                // Write the pixel color to the image writer
+                imageWriter.writePixel(col, row, pixelColor);
+            };
         }
         else {
             // Render the image using adaptive super-sampling
-            // Create multiple threads to process the pixels in parallel
-            while (numOfThreads-- > 0) {
-                new Thread(() -> {
-                    // Iterate over each pixel in the image
-                    for (Pixel pixel = new Pixel(); pixel.nextPixel(); Pixel.pixelDone()) {
-                        // Apply adaptive super-sampling to determine the pixel color
-                        Color pixelColor = SuperSampling(nX, nY, pixel.col, pixel.row, antiAliasing, true);
-                        // Write the pixel color to the image writer
-                        imageWriter.writePixel(pixel.col, pixel.row, pixelColor);
-                    }
-                }).start();
-            }
-            // Wait for all the threads to finish processing the pixels
-            Pixel.waitToFinish();
+            renderer = (col, row) -> {
+                // Apply adaptive super-sampling to determine the pixel color
+                Color pixelColor = SuperSampling(nX, nY, col, row, antiAliasing, true);
+                // Write the pixel color to the image writer
+                imageWriter.writePixel(col, row, pixelColor);
+            };
         }
-        // Return the camera object
-        return this;
+        return new RenderSession(this, scheduler, forkJoin
+                ? scheduler.startRecursively(numOfThreads, renderer)
+                : scheduler.start(numOfThreads, renderer));
+    }
+
+    /**
+     * Creates the renderer of a pixel out of time, by a single ray through its center
+     *
+     * @param nX the number of pixels in the X direction
+     * @param nY the number of pixels in the Y direction
+     * @return the renderer
+     */
+    private TileScheduler.PixelRenderer centerRayRenderer(int nX, int nY) {
+        return (col, row) -> imageWriter.writePixel(col, row,
+                rayTracer.traceRay(constructRayThroughPixel(nX, nY, col, row)));
+    }
+
+    /**
+     * Starts rendering the image in passes of a growing number of rays per pixel
+     *
+     * @param start the time the render started, by {@link System#nanoTime()}
+     * @param nX    the number of pixels in the X direction
+     * @param nY    the number of pixels in the Y direction
+     * @return the session of the render
+     */
+    private RenderSession startProgressiveRender(long start, int nX, int nY) {
+        double rY = height / nY / antiAliasing;
+        double rX = width / nX / antiAliasing;
+        ProgressiveRender render = new ProgressiveRender(imageWriter, antiAliasing, progressiveSamples,
+                (col, row, stratumCol, stratumRow) -> rayTracer.traceRay(
+                        constructSubPixelRay(getCenterOfPixel(nX, nY, col, row), rX, rY, stratumRow, stratumCol)),
+                progressListener);
+        if (timeBudget != null)
+            render.setDeadline(start + timeBudget.toNanos(), centerRayRenderer(nX, nY));
+        render.setThreshold(convergence);
+        render.setSnapshotListener(snapshotListener);
+        return new RenderSession(this, render, render.start(numOfThreads, forkJoin));
     }
     /**
      * Creates a grid of lines on the image.
@@ -487,15 +603,13 @@ public class Camera implements Cloneable {
      * @return The sum of colors.
      */
     private Color calcColorSum(List<Ray> rays) {
-        Color colorSum = new Color(0, 0, 0);
+        ColorAccumulator colorSum = new ColorAccumulator();
         for (Ray ray : rays) {
             // Trace each ray and add its color to the sum
-            Color calcColor = rayTracer.traceRay(ray);
-            colorSum = colorSum.add(calcColor);
+            colorSum.add(rayTracer.traceRay(ray));
         }
         // Reduce the sum of colors by dividing it by the number of rays
-        colorSum = colorSum.reduce(rays.size());
-        return colorSum;
+        return colorSum.average(rays.size());
     }
 
     /**
@@ -513,24 +627,36 @@ public class Camera implements Cloneable {
         Point centralPixel = getCenterOfPixel(nX, nY, j, i);
         double rY = height / nY / antiAliasing;
         double rX = width / nX / antiAliasing;
-        // Variables to store the X and Y offsets of each sub-pixel within the anti-aliasing grid
-        double x, y;
 
         for (int rowNumber = 0; rowNumber < antiAliasing; rowNumber++) {
             for (int colNumber = 0; colNumber < antiAliasing; colNumber++) {
-                // Calculate the X and Y offsets for the current sub-pixel
-                y = -(rowNumber - (antiAliasing - 1d) / 2) * rY;
-                x = (colNumber - (antiAliasing - 1d) / 2) * rX;
-                // Calculate the position of the current sub-pixel within the pixel
-                Point pIJ = centralPixel;
-                if (y != 0) pIJ = pIJ.add(vUp.scale(y));
-                if (x != 0) pIJ = pIJ.add(vRight.scale(x));
-                // Construct a ray from the camera position to the current sub-pixel
-                rays.add(new Ray(p0, pIJ.subtract(p0)));
+                rays.add(constructSubPixelRay(centralPixel, rX, rY, rowNumber, colNumber));
             }
         }
         return rays;
     }
+
+    /**
+     * Constructs the ray through the center of a sub-pixel of the anti-aliasing grid
+     *
+     * @param centralPixel the center of the pixel
+     * @param rX           the width of a sub-pixel
+     * @param rY           the height of a sub-pixel
+     * @param rowNumber    the row of the sub-pixel in the grid
+     * @param colNumber    the column of the sub-pixel in the grid
+     * @return the ray from the camera through the sub-pixel
+     */
+    private Ray constructSubPixelRay(Point centralPixel, double rX, double rY, int rowNumber, int colNumber) {
+        // Calculate the X and Y offsets for the sub-pixel
+        double y = -(rowNumber - (antiAliasing - 1d) / 2) * rY;
+        double x = (colNumber - (antiAliasing - 1d) / 2) * rX;
+        // Calculate the position of the sub-pixel within the pixel
+        Point pIJ = centralPixel;
+        if (y != 0) pIJ = pIJ.add(vUp.scale(y));
+        if (x != 0) pIJ = pIJ.add(vRight.scale(x));
+        // Construct a ray from the camera position to the sub-pixel
+        return new Ray(p0, pIJ.subtract(p0));
+    }
     /**
      * Checks the color of the pixel with the help of individual rays and averages between them and only
      * if necessary continues to send beams of rays in recursion
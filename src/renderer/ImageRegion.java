@@ -0,0 +1,31 @@
+package renderer;
+
+/**
+ * A rectangle of pixels of an image
+ *
+ * @param fromCol the first column (inclusive)
+ * @param fromRow the first row (inclusive)
+ * @param toCol   the last column (exclusive)
+ * @param toRow   the last row (exclusive)
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public record ImageRegion(int fromCol, int fromRow, int toCol, int toRow) {
+
+    /**
+     * @return the number of pixels of the region
+     */
+    public int size() {
+        return (toCol - fromCol) * (toRow - fromRow);
+    }
+
+    /**
+     * Checks whether a pixel is in the region
+     *
+     * @param col the column of the pixel
+     * @param row the row of the pixel
+     * @return true if the pixel is in the region
+     */
+    public boolean contains(int col, int row) {
+        return col >= fromCol && col < toCol && row >= fromRow && row < toRow;
+    }
+}
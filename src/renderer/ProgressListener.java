@@ -0,0 +1,38 @@
+package renderer;
+
+/**
+ * Receives the progress of a render. It is called by the rendering threads as the pixels
+ * are done, one call at a time, at most once for each tenth of a percent and once more
+ * when all the pixels are done, so it should return quickly.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * Called when the render made progress
+     *
+     * @param progress the progress so far
+     */
+    void progress(RenderProgress progress);
+
+    /**
+     * A listener that prints the progress to the standard output, once for each percent
+     *
+     * @return the listener
+     */
+    static ProgressListener console() {
+        return new ProgressListener() {
+            private long lastPrinted = -1;
+
+            @Override
+            public void progress(RenderProgress progress) {
+                long percent = (long) (progress.fraction() * 100);
+                if (percent != lastPrinted) {
+                    lastPrinted = percent;
+                    System.out.println(progress);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,282 @@
+package renderer;
+
+import primitives.Color;
+import primitives.ColorAccumulator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/**
+ * Renders an image progressively, in passes over the whole image.
+ * The pixel is divided into a grid of square strata, like the anti-aliasing rays of a
+ * pixel, and the strata are ordered so that each one is the farthest from the ones before
+ * it, starting at the center of the pixel; so the first samples of any number cover the
+ * pixel evenly. Pass 1 traces a single ray per pixel, and every later pass doubles the
+ * number of samples per pixel: 1, 2, 4, 8 and so on, so the number of passes grows with
+ * the logarithm of the number of samples. The samples of a pixel are summed into a running
+ * accumulation buffer, and their average is written to the image writer when the pixel is
+ * done in a pass.
+ * <p>
+ * All the passes are rendered by a single {@link TileScheduler}, by the same threads or
+ * pool, and a listener receives the image after each pass, i.e. at each level of quality.
+ * The render stops after a number of samples per pixel, once a pass changes no pixel by
+ * as much as a threshold, or at a deadline: the pixels that pass 1 did not reach by the
+ * deadline are rendered by a fallback, and a later pass reached by the deadline leaves the
+ * rest of its pixels as they were.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+class ProgressiveRender implements RenderJob {
+
+    /**
+     * Traces a single sample of a pixel
+     */
+    @FunctionalInterface
+    interface SampleTracer {
+        /**
+         * Traces a ray through the center of a stratum of a pixel
+         *
+         * @param col        the column of the pixel
+         * @param row        the row of the pixel
+         * @param stratumCol the column of the stratum in the pixel
+         * @param stratumRow the row of the stratum in the pixel
+         * @return the color of the sample
+         */
+        Color trace(int col, int row, int stratumCol, int stratumRow);
+    }
+
+    private final ImageWriter imageWriter;
+    private final int nX, nY;
+    private final int gridSize;
+    /** The strata of the samples in order, numbered row by row */
+    private final int[] strata;
+    private final SampleTracer tracer;
+    /** Renders the passes */
+    private final TileScheduler scheduler;
+
+    /** The sums of the samples of the pixels, numbered row by row */
+    private final ColorAccumulator[] sums;
+
+    /** The time to stop refining, by {@link System#nanoTime()} */
+    private long deadline;
+    /** Set if the render has a deadline */
+    private boolean hasDeadline = false;
+    /** A pass changing no pixel component by as much as this ends the render, 0 for none */
+    private double threshold = 0;
+    /** Receives the image after each pass, null if it is not required */
+    private SnapshotListener snapshotListener = null;
+
+    /** The index of the current pass, from 0; changed between passes only */
+    private int pass;
+    /** The largest change of a pixel component in the current pass */
+    private DoubleAccumulator change;
+    /** Set when the render ended by its sample count or by converging */
+    private volatile boolean exact = false;
+
+    /**
+     * Constructs a progressive render of an image
+     *
+     * @param imageWriter receives the pixels
+     * @param gridSize    the number of strata in a row and a column of a pixel
+     * @param samples     the number of samples per pixel to stop at, at most the number of
+     *                    strata
+     * @param tracer      traces a sample of a pixel
+     * @param listener    receives the progress of each pass, null if it is not required
+     * @throws IllegalArgumentException if the grid size or the number of samples is not
+     *                                  positive
+     */
+    ProgressiveRender(ImageWriter imageWriter, int gridSize, int samples, SampleTracer tracer,
+                      ProgressListener listener) {
+        if (gridSize <= 0 || samples <= 0)
+            throw new IllegalArgumentException("The grid size and the number of samples must be positive");
+        this.imageWriter = imageWriter;
+        this.nX = imageWriter.getNx();
+        this.nY = imageWriter.getNy();
+        this.gridSize = gridSize;
+        this.strata = strataOrder(gridSize, Math.min(samples, gridSize * gridSize));
+        this.tracer = tracer;
+        sums = new ColorAccumulator[nX * nY];
+        scheduler = new TileScheduler(nX, nY, TileScheduler.TILE_SIZE, listener);
+    }
+
+    /**
+     * Orders the strata of a grid so that each one is the farthest from the ones before it,
+     * starting at the center of the grid; ties go to the first stratum row by row
+     *
+     * @param gridSize the number of strata in a row and a column
+     * @param count    the number of strata to order
+     * @return the strata in order, numbered row by row
+     */
+    static int[] strataOrder(int gridSize, int count) {
+        int total = gridSize * gridSize;
+        int[] order = new int[count];
+        // The squared distance of each stratum from the nearest one ordered so far
+        long[] distance = new long[total];
+        // Start at the center, measured in half strata to stay in integers
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < total; ++i) {
+            long dx = 2L * (i % gridSize) - (gridSize - 1), dy = 2L * (i / gridSize) - (gridSize - 1);
+            if (dx * dx + dy * dy < best) {
+                best = dx * dx + dy * dy;
+                order[0] = i;
+            }
+        }
+        Arrays.fill(distance, Long.MAX_VALUE);
+        for (int k = 0; k < count; ++k) {
+            if (k > 0) {
+                long farthest = -1;
+                for (int i = 0; i < total; ++i)
+                    if (distance[i] > farthest) {
+                        farthest = distance[i];
+                        order[k] = i;
+                    }
+            }
+            int chosen = order[k];
+            for (int i = 0; i < total; ++i) {
+                long dx = i % gridSize - chosen % gridSize, dy = i / gridSize - chosen / gridSize;
+                distance[i] = Math.min(distance[i], dx * dx + dy * dy);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Sets a deadline for the render: from that time on, pass 1 renders the pixels by a
+     * fallback, and the later passes leave them as they are. Set before the render starts.
+     *
+     * @param deadline the deadline, by {@link System#nanoTime()}
+     * @param fallback renders a pixel in pass 1 after the deadline
+     */
+    void setDeadline(long deadline, TileScheduler.PixelRenderer fallback) {
+        this.deadline = deadline;
+        this.hasDeadline = true;
+        scheduler.setDeadline(deadline, fallback);
+    }
+
+    /**
+     * Sets the convergence threshold: the render ends after a pass that changed no
+     * component of a pixel by as much as it. Set before the render starts.
+     *
+     * @param threshold the threshold, in the units of the color components; 0 for none
+     */
+    void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Sets the listener of the image after each pass. Set before the render starts.
+     *
+     * @param snapshotListener the listener, null for none
+     */
+    void setSnapshotListener(SnapshotListener snapshotListener) {
+        this.snapshotListener = snapshotListener;
+    }
+
+    /**
+     * Starts rendering the passes by a number of threads.
+     * If a pass fails, the render completes with the failure.
+     *
+     * @param threadCount the number of rendering threads
+     * @param forkJoin    whether the passes are rendered by a fork/join pool
+     * @return completed when the last pass is done
+     */
+    CompletableFuture<Void> start(int threadCount, boolean forkJoin) {
+        TileScheduler.PixelRenderer first = passRenderer(0);
+        return forkJoin
+                ? scheduler.startRecursively(threadCount, first, this::nextPass)
+                : scheduler.start(threadCount, first, this::nextPass);
+    }
+
+    /**
+     * @param pass the index of a pass, from 0
+     * @return the number of samples per pixel at the end of the pass
+     */
+    private int samplesAfter(int pass) {
+        return Math.min(1 << pass, strata.length);
+    }
+
+    /**
+     * Creates the renderer of the pixels in a pass, which adds the samples of the pass to
+     * the sum of the pixel and writes their average so far
+     *
+     * @param pass the index of the pass, from 0
+     * @return the renderer of the pass
+     */
+    private TileScheduler.PixelRenderer passRenderer(int pass) {
+        this.pass = pass;
+        int from = pass == 0 ? 0 : samplesAfter(pass - 1), to = samplesAfter(pass);
+        DoubleAccumulator change = new DoubleAccumulator(Math::max, 0);
+        this.change = change;
+        return (col, row) -> {
+            int pixel = row * nX + col;
+            if (from == 0)
+                sums[pixel] = new ColorAccumulator();
+            ColorAccumulator sum = sums[pixel];
+            Color before = from == 0 ? null : sum.average(from);
+            for (int i = from; i < to; ++i)
+                sum.add(tracer.trace(col, row, strata[i] % gridSize, strata[i] / gridSize));
+            Color color = sum.average(to);
+            if (before != null)
+                change.accumulate(color.maxDifference(before));
+            imageWriter.writePixel(col, row, color);
+        };
+    }
+
+    /**
+     * Hands the image of the pass that is done to the listener, and decides on the next
+     * pass. Called by a single rendering thread while no pixel is rendered.
+     *
+     * @return the renderer of the next pass, or null to end the render
+     */
+    private TileScheduler.PixelRenderer nextPass() {
+        int samples = samplesAfter(pass);
+        if (snapshotListener != null)
+            snapshotListener.snapshot(pass + 1, samples, imageWriter);
+        // Stopped, or the deadline came in the middle of the pass
+        if (!scheduler.isExact())
+            return null;
+        if (samples == strata.length || pass > 0 && change.get() < threshold) {
+            exact = true;
+            return null;
+        }
+        if (hasDeadline) {
+            if (System.nanoTime() - deadline >= 0)
+                return null;
+            // Out of time, leave the pixel as it is
+            scheduler.setDeadline(deadline, (col, row) -> { });
+        }
+        return passRenderer(pass + 1);
+    }
+
+    /**
+     * @return the progress of the current pass
+     */
+    @Override
+    public RenderProgress progress() {
+        return scheduler.progress();
+    }
+
+    @Override
+    public void stop() {
+        scheduler.stop();
+    }
+
+    /**
+     * @return true if the render ended by its number of samples or by converging, rather
+     *         than by a stop or by its deadline
+     */
+    @Override
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * @return the whole image if the render is exact, otherwise no region
+     */
+    @Override
+    public List<ImageRegion> exactRegions() {
+        return exact ? List.of(new ImageRegion(0, 0, nX, nY)) : List.of();
+    }
+}
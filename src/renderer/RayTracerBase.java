@@ -25,6 +25,14 @@ public abstract class RayTracerBase {
         this.scene = scene;
     }
 
+    /**
+     * Prepares the scene for rendering, e.g. indexes the geometries of a large scene.
+     * Called by the camera before the rendering starts.
+     */
+    public void prepare() {
+        scene.prepareForRendering();
+    }
+
     /**
      * Receives ray and returns the color of the nearest intersection point on the
      * ray.
@@ -40,6 +48,18 @@ public abstract class RayTracerBase {
      */
     public abstract Color TraceRays(List<Ray> rays);
 
+    /**
+     * Traces coherent rays (e.g. the samples of a single pixel) in packets, and averages
+     * their colors like {@link #TraceRays(List)}.
+     * The default implementation traces the rays one by one.
+     *
+     * @param rays the rays that came out of the camera
+     * @return the average color of the rays
+     */
+    public Color traceRayPackets(List<Ray> rays) {
+        return TraceRays(rays);
+    }
+
     /**
      * Checks the color of the pixel with the help of individual rays and averages between
      * them and only if necessary continues to send beams of rays in recursion
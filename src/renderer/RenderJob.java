@@ -0,0 +1,30 @@
+package renderer;
+
+import java.util.List;
+
+/**
+ * A started render, as seen by its {@link RenderSession}
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+interface RenderJob {
+    /**
+     * @return the progress of the render so far
+     */
+    RenderProgress progress();
+
+    /**
+     * Stops the render: no more pixels are rendered
+     */
+    void stop();
+
+    /**
+     * @return true if the render was not stopped and did not reach its deadline
+     */
+    boolean isExact();
+
+    /**
+     * @return the regions whose pixels were all rendered exactly
+     */
+    List<ImageRegion> exactRegions();
+}
@@ -0,0 +1,48 @@
+package renderer;
+
+import java.time.Duration;
+
+/**
+ * A snapshot of the progress of a render
+ *
+ * @param donePixels  the number of pixels rendered so far
+ * @param totalPixels the number of pixels of the image
+ * @param elapsed     the time since the render started
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public record RenderProgress(long donePixels, long totalPixels, Duration elapsed) {
+
+    /**
+     * @return the part of the pixels rendered so far, between 0 and 1
+     */
+    public double fraction() {
+        return totalPixels == 0 ? 1 : (double) donePixels / totalPixels;
+    }
+
+    /**
+     * @return the average number of pixels rendered per second so far
+     */
+    public double pixelsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : donePixels * 1e9 / nanos;
+    }
+
+    /**
+     * Estimates the time left by the average rate so far
+     *
+     * @return the estimated time until the render is done, or null if no pixel was rendered yet
+     */
+    public Duration eta() {
+        if (donePixels >= totalPixels)
+            return Duration.ZERO;
+        double rate = pixelsPerSecond();
+        return rate == 0 ? null : Duration.ofNanos((long) ((totalPixels - donePixels) / rate * 1e9));
+    }
+
+    @Override
+    public String toString() {
+        Duration eta = eta();
+        return String.format("%5.1f%% %.0f pixels/s ETA %s", fraction() * 100, pixelsPerSecond(),
+                eta == null ? "?" : eta.toSeconds() + "s");
+    }
+}
@@ -0,0 +1,98 @@
+package renderer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A render in progress, started by {@link Camera#startRender()}.
+ * The render runs in threads of its own; the session tells its progress and completes
+ * when all the pixels are written to the image writer of the camera, or when the render
+ * is cancelled.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+public final class RenderSession {
+    private final RenderJob job;
+    private final CompletableFuture<Camera> completion;
+
+    /**
+     * Constructs the session of a started render
+     *
+     * @param camera     the rendering camera
+     * @param job        the started render
+     * @param completion completed when the render is done
+     */
+    RenderSession(Camera camera, RenderJob job, CompletableFuture<Void> completion) {
+        this.job = job;
+        this.completion = completion.thenApply(v -> camera);
+    }
+
+    /**
+     * @return a future completed with the camera when the render is done, or with the
+     *         failure of the render
+     */
+    public CompletableFuture<Camera> completion() {
+        return completion.copy();
+    }
+
+    /**
+     * @return the progress of the render so far; of the current pass for a progressive
+     *         render
+     */
+    public RenderProgress progress() {
+        return job.progress();
+    }
+
+    /**
+     * @return true if the render is done, whether it succeeded or not
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Cancels the render: the rendering threads stop at their next pixel, and the session
+     * completes with the pixels rendered so far. Does nothing if the render is done.
+     */
+    public void cancel() {
+        job.stop();
+    }
+
+    /**
+     * @return true if all the pixels were rendered exactly, i.e. the render was not
+     *         cancelled and did not run out of its time budget; meaningful once the render
+     *         is done
+     */
+    public boolean isExact() {
+        return job.isExact();
+    }
+
+    /**
+     * @return the regions of the image whose pixels were all rendered exactly, before the
+     *         render was cancelled or ran out of its time budget; the other pixels were
+     *         rendered by a single ray through their center, or not at all if the render was
+     *         cancelled. A progressive render is exact as a whole or not at all.
+     */
+    public List<ImageRegion> exactRegions() {
+        return job.exactRegions();
+    }
+
+    /**
+     * Waits for the render to be done
+     *
+     * @return the rendering camera
+     * @throws RuntimeException the failure of the render, if it failed
+     */
+    public Camera await() {
+        try {
+            return completion.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof Error cause)
+                throw cause;
+            throw e;
+        }
+    }
+}
@@ -2,13 +2,18 @@ package renderer;
 
 import primitives.*;
 import scene.Scene;
+import geometries.Geometry;
+import geometries.RayPacket;
 import geometries.Intersectable.GeoPoint;
 import java.util.List;
+import java.util.function.Predicate;
 import lighting.*;
 import primitives.Ray;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Random;
+import java.util.concurrent.ForkJoinTask;
 
 
 /**
@@ -18,6 +23,11 @@ public class SimpleRayTracer extends RayTracerBase {
     private static final int MAX_CALC_COLOR_LEVEL = 10;
     private static final double MIN_CALC_COLOR_K = 0.001;
     private static final Double3 INITIAL_K = Double3.ONE;
+    /**
+     * The smallest size of a sub-pixel, in minimal sub-pixels, whose adaptive super-sampling
+     * recursion is split into subtasks when it runs in a fork/join pool
+     */
+    private static final int FORK_SIZE = 8;
 
     /**
      * Creates a basic ray tracer.
@@ -55,8 +65,10 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The calculated color.
      */
     private Color calcColor(GeoPoint gp, Ray ray, int level, Double3 k) {
-        Color color = calcLocalEffects(gp, ray, k);
-        return (level == 1) ? color : color.add(calcGlobalEffects(gp, ray, level, k));
+        // the normal is calculated once for the local and the global effects
+        Vector n = gp.getNormal();
+        Color color = calcLocalEffects(gp, ray, n, k);
+        return (level == 1) ? color : color.add(calcGlobalEffects(gp, ray, n, level, k));
     }
 
     /**
@@ -66,41 +78,44 @@ public class SimpleRayTracer extends RayTracerBase {
      *
      * @param gp  The intersection point and its associated geometry.
      * @param ray The ray that intersected with the geometry.
+     * @param n   The normal at the intersection point.
+     * @param k   The attenuation coefficient.
      * @return The color resulting from the local effects.
      */
-    private Color calcLocalEffects(GeoPoint gp, Ray ray, Double3 k) {
+    private Color calcLocalEffects(GeoPoint gp, Ray ray, Vector n, Double3 k) {
         Color color = gp.geometry.getEmission();
         Vector v = ray.direction;
-        Vector n = gp.geometry.getNormal(gp.point);
         double nv = Util.alignZero(n.dotProduct(v));
         if (nv == 0)
             return Color.BLACK;
         Material material = gp.geometry.getMaterial();
+        // the contributions of the lights are summed in place, starting at the emission
+        ColorAccumulator sum = null;
         for (LightSource lightSource : scene.lights) {
             Vector l = lightSource.getL(gp.point);
             double nl = Util.alignZero(n.dotProduct(l));
             if (nl * nv > 0) { // sign(nl) == sign(nv)
 
                 Double3 ktr = transparency(gp,l,n,lightSource);
-                if (!(ktr.product(k).lowerThan(MIN_CALC_COLOR_K)||ktr.product(k).equals(MIN_CALC_COLOR_K))) {
+                if (!ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) {
                     Color iL = lightSource.getIntensity(gp.point).scale(ktr);
-                    color = color.add(iL.scale(calcDiffusive(material, nl)),
-                            iL.scale(calcSpecular(material, n, l, nl, v)));
+                    if (sum == null)
+                        sum = new ColorAccumulator(color);
+                    sum.add(iL, material.kD, calcDiffusive(nl))
+                            .add(iL, material.kS, calcSpecular(material, n, l, nl, v));
                 }
             }
         }
-        return color;
+        return sum == null ? color : sum.toColor();
     }
     /**
-     * Calculate the diffuse light effect on the point
+     * Calculate the diffuse light effect on the point, the factor of Kd
      *
-     * @param material       diffuse attenuation factor
      * @param nl the intensity of the light source at this point
-     * @return the color of the diffusive
+     * @return the diffusive factor |l * n|
      */
-    private Double3 calcDiffusive(Material material, double nl) {
-        nl = Math.abs(nl);
-        return material.kD.scale(nl); // Kd * |l * n| * Il
+    private double calcDiffusive(double nl) {
+        return Math.abs(nl); // Kd * |l * n| * Il
     }
 
     /**
@@ -112,13 +127,13 @@ public class SimpleRayTracer extends RayTracerBase {
      * @param n              normal from the point
      * @param v              direction of the viewer
      * @param nl the intensity of the light source at the point
-     * @return the color of the point
+     * @return the specular factor of Ks, max(0, - v * r) ^ Nsh
      */
-    private Double3 calcSpecular(Material material, Vector n, Vector l, Double nl, Vector v) {
-        Vector r = l.subtract(n.scale(2 * nl)); // r=l-2*(l*n)*n
-        double vr = Util.alignZero(v.dotProduct(r)); // vr=v*r
-        double vrnsh = Math.pow(Math.max(0, -vr), material.Shininess); // vrnsh=max(0,-vr)^nshininess
-        return material.kS.scale(vrnsh); // Ks * (max(0, - v * r) ^ Nsh) * Il
+    private double calcSpecular(Material material, Vector n, Vector l, double nl, Vector v) {
+        double k = 2 * nl; // r=l-2*(l*n)*n, kept in coordinates
+        double rx = l.getX() - n.getX() * k, ry = l.getY() - n.getY() * k, rz = l.getZ() - n.getZ() * k;
+        double vr = Util.alignZero(VectorMath.dot(v.getX(), v.getY(), v.getZ(), rx, ry, rz)); // vr=v*r
+        return Math.pow(Math.max(0, -vr), material.Shininess); // Ks * (max(0, - v * r) ^ Nsh) * Il
     }
     /**
      * Constructs the reflected ray from a given point.
@@ -129,7 +144,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return the reflected ray.
      */
     private Ray constructReflectedRay(GeoPoint gp, Vector v, Vector n) {
-        Vector r = v.subtract(n.scale(2 * v.dotProduct(n)));
+        Vector r = VectorMath.reflect(v, n, v.dotProduct(n));
         return new Ray(gp.point, r, n); // שימוש בבנאי החדש של Ray
     }
 
@@ -150,13 +165,13 @@ public class SimpleRayTracer extends RayTracerBase {
      *
      * @param gp    The intersection point on a geometry object.
      * @param ray   The ray from the camera that intersected the geometry.
+     * @param n     The normal at the intersection point.
      * @param level The recursion level for global effects calculation.
      * @param k     The initial attenuation coefficient (between 0-1).
      * @return The color of the point with consideration of global effects.
      */
-    private Color calcGlobalEffects(GeoPoint gp, Ray ray, int level, Double3 k) {
+    private Color calcGlobalEffects(GeoPoint gp, Ray ray, Vector n, int level, Double3 k) {
         Vector v = ray.direction;
-        Vector n = gp.geometry.getNormal(gp.point);
         Material material = gp.geometry.getMaterial();
         return calcGlobalEffect(material, n, constructReflectedRay(gp, v, n), level, material.kR, k)
                 .add(calcGlobalEffect(material, n, constructRefractedRay(gp, v, n), level, material.kT, k));
@@ -191,9 +206,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The closest intersection point of the ray and geometry.
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
-        if (intersections == null) return null;
-        return ray.findClosestGeoPoint(intersections);
+        return scene.geometries.findClosestGeoIntersection(ray);
     }
 //    /**
 //     * Checks if a given point is unshaded by finding intersections between the point and the light source.
@@ -233,22 +246,31 @@ public class SimpleRayTracer extends RayTracerBase {
     private Double3 transparency(GeoPoint gp, Vector l, Vector n,  LightSource light) {
         Vector lightDirection = l.scale(-1); // from point to light source
         Ray lightRay = new Ray(gp.point, lightDirection,n);
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(lightRay);
-        if (intersections == null)
-            return Double3.ONE;
-        Double3 ktr=Double3.ONE;
-        double lightDistance = light.getDistance(gp.point);
-        for (GeoPoint gp1 : intersections) {
-            if (Util.alignZero(gp1.point.distance(gp.point) - lightDistance) <= 0)
-            {
-                ktr=ktr.product(gp1.geometry.getMaterial().kT);
-                if(ktr.lowerThan(MIN_CALC_COLOR_K))
-                    return Double3.ZERO;
-            }
+        // only the blockers between the point and the light are of interest
+        Transmittance transmittance = new Transmittance();
+        return scene.geometries.findAnyIntersection(lightRay, light.getDistance(gp.point), transmittance)
+                ? Double3.ZERO : transmittance.ktr;
+    }
+
+    /**
+     * Accumulates the transparency of the blockers along a shadow ray.
+     * It stops the search at the first opaque blocker, or as soon as the accumulated
+     * transparency is too low to matter.
+     */
+    private static class Transmittance implements Predicate<Geometry> {
+        /** The product of the transparencies of the blockers found so far */
+        Double3 ktr = Double3.ONE;
 
+        @Override
+        public boolean test(Geometry geometry) {
+            Double3 kT = geometry.getMaterial().kT;
+            if (kT.equals(Double3.ZERO))
+                return true;
+            ktr = ktr.product(kT);
+            return ktr.lowerThan(MIN_CALC_COLOR_K);
         }
-        return ktr;
     }
+
     /**
      * Trace the ray and calculates the color of the point that interact with the geometries of the scene
      *
@@ -257,14 +279,41 @@ public class SimpleRayTracer extends RayTracerBase {
      */
     @Override
     public Color TraceRays(List<Ray> rays) {
-        Color color = Color.BLACK;
+        ColorAccumulator color = new ColorAccumulator();
         for (Ray ray : rays) {
             GeoPoint clossestGeoPoint = findClosestIntersection(ray);
             if (clossestGeoPoint == null)
-                color = color.add(scene.background);
-            else color = color.add(calcColor(clossestGeoPoint, ray));
+                color.add(scene.background);
+            else color.add(calcColor(clossestGeoPoint, ray));
         }
-        return color.reduce(rays.size());
+        return color.average(rays.size());
+    }
+
+    /**
+     * Traces the rays in packets of {@link RayPacket#SIZE}, so that the geometries are
+     * searched once for the whole packet, then shades each ray on its own
+     *
+     * @param rays the rays that came out of the camera
+     * @return the average color of the rays
+     */
+    @Override
+    public Color traceRayPackets(List<Ray> rays) {
+        ColorAccumulator color = new ColorAccumulator();
+        RayPacket packet = new RayPacket();
+        Iterator<Ray> iterator = rays.iterator();
+        while (iterator.hasNext()) {
+            packet.clear();
+            while (iterator.hasNext() && !packet.isFull())
+                packet.add(iterator.next());
+            scene.geometries.findClosestGeoIntersections(packet);
+            for (int i = 0; i < packet.size(); ++i) {
+                GeoPoint closestGeoPoint = packet.getClosest(i);
+                if (closestGeoPoint == null)
+                    color.add(scene.background);
+                else color.add(calcColor(closestGeoPoint, packet.getRay(i)));
+            }
+        }
+        return color.average(rays.size());
     }
 
     /**
@@ -322,13 +371,27 @@ public class SimpleRayTracer extends RayTracerBase {
             return tempColor;
 
 
-        tempColor = primitives.Color.BLACK;
+        ColorAccumulator sum = new ColorAccumulator();
+        if (ForkJoinTask.inForkJoinPool() && Width >= minWidth * FORK_SIZE && Height >= minHeight * FORK_SIZE) {
+            // Recursively perform adaptive super-sampling on sub-pixels as subtasks, so that
+            // idle workers of the pool can share an expensive pixel
+            List<ForkJoinTask<Color>> tasks = new ArrayList<>();
+            for (Point center : nextCenterPList) {
+                tasks.add(ForkJoinTask.adapt(() -> AdaptiveSuperSamplingRec(center, Width / 2, Height / 2,
+                        minWidth, minHeight, cameraLoc, Vright, Vup, cornersList)));
+            }
+            // Sum the colors in the order of the sub-pixels, as the sequential recursion does
+            for (ForkJoinTask<Color> task : ForkJoinTask.invokeAll(tasks)) {
+                sum.add(task.join());
+            }
+            return sum.average(nextCenterPList.size());
+        }
         // Recursively perform adaptive super-sampling on sub-pixels
         for (Point center : nextCenterPList) {
-            tempColor = tempColor.add(AdaptiveSuperSamplingRec(center, Width / 2, Height / 2, minWidth, minHeight, cameraLoc, Vright, Vup, cornersList));
+            sum.add(AdaptiveSuperSamplingRec(center, Width / 2, Height / 2, minWidth, minHeight, cameraLoc, Vright, Vup, cornersList));
         }
         // Reduce the color by dividing by the number of sub-pixels
-        return tempColor.reduce(nextCenterPList.size());
+        return sum.average(nextCenterPList.size());
     }
     /**
      * Performs regular super-sampling for a given pixel.
@@ -375,13 +438,13 @@ public class SimpleRayTracer extends RayTracerBase {
             return primitives.Color.BLACK;
         }
 
-        Color averageColor = Color.BLACK;
+        ColorAccumulator averageColor = new ColorAccumulator();
         // Calculate the average color by adding all colors in the colorList
         for (Color color : colorList) {
-            averageColor = averageColor.add(color);
+            averageColor.add(color);
         }
         // Reduce the color by dividing by the number of sub-pixels
-        return averageColor.reduce(colorList.size());
+        return averageColor.average(colorList.size());
     }
 
 }
\ No newline at end of file
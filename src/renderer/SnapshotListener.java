@@ -0,0 +1,23 @@
+package renderer;
+
+/**
+ * Receives the image of a progressive render after each of its passes, i.e. at each level
+ * of quality, e.g. to write it to a file or show it. It is called by a rendering thread
+ * while no pixel is rendered, so the image is consistent, and the next pass waits for it
+ * to return.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+@FunctionalInterface
+public interface SnapshotListener {
+    /**
+     * Called when a pass of the render is done
+     *
+     * @param pass        the number of the pass, from 1
+     * @param samples     the number of samples per pixel after the pass, which doubles from
+     *                    pass to pass; the pixels a pass did not reach, if it was cut short by
+     *                    a cancel or by the time budget, have fewer samples
+     * @param imageWriter the image writer of the render, holding the image so far
+     */
+    void snapshot(int pass, int samples, ImageWriter imageWriter);
+}
@@ -0,0 +1,468 @@
+package renderer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Distributes the pixels of a single render among the rendering threads.
+ * The image is cut into square tiles, numbered row by row, and each thread takes the
+ * next tile from an atomic cursor and renders all its pixels before it takes another
+ * one. The threads share no lock, neighbouring pixels are rendered by the same thread,
+ * and all the state belongs to the scheduler, so renders of several cameras may run
+ * at the same time.
+ * <p>
+ * Alternatively the image is rendered by a {@link ForkJoinPool}: the image is split in
+ * halves recursively down to regions of {@link #REGION_SIZE} pixels, and the idle workers
+ * steal the unsplit halves of the busy ones, so the work stays balanced to the end even if
+ * the cost of the pixels varies a lot. Tasks running in the pool may fork subtasks of
+ * their own, e.g. the recursion of an expensive adaptively super-sampled pixel.
+ * <p>
+ * A render is started without waiting for it: the last thread to finish completes the
+ * future of the render, and the progress is reported to a listener by the threads as
+ * they finish their tiles.
+ * <p>
+ * A render may be stopped at any pixel: the regions in progress are left unfinished.
+ * With a deadline, the pixels that were not rendered by the deadline are rendered by a
+ * cheaper fallback instead. The regions rendered fully before the stop or the deadline
+ * are recorded as exact.
+ * <p>
+ * A render may run in several passes over the whole image, e.g. to refine it: the same
+ * threads, or the same pool, render all the passes, and between two passes the tiles are
+ * handed out again from the first one.
+ *
+ * @author Ruth Katanov 326295425  Adi Itzkovich 214608473
+ */
+class TileScheduler implements RenderJob {
+    /** The default width and height of a tile, in pixels */
+    static final int TILE_SIZE = 16;
+    /** The largest number of pixels of a region rendered by a single fork/join task */
+    static final int REGION_SIZE = 16;
+
+    /**
+     * Renders a single pixel
+     */
+    @FunctionalInterface
+    interface PixelRenderer {
+        /**
+         * Renders a pixel and writes its color
+         *
+         * @param col the column of the pixel
+         * @param row the row of the pixel
+         */
+        void render(int col, int row);
+    }
+
+    /**
+     * Decides on the next pass of a render of several passes
+     */
+    @FunctionalInterface
+    interface NextPass {
+        /**
+         * Called by a single rendering thread when a pass is done, while no pixel is rendered
+         *
+         * @return the renderer of the pixels in the next pass, or null to end the render
+         */
+        PixelRenderer next();
+    }
+
+    private final int nX, nY;
+    private final int tileSize;
+    private final int tilesInRow;
+    private final int tileCount;
+
+    /** Renders the pixels of the current pass, null once the render is over */
+    private volatile PixelRenderer passRenderer;
+    /** The index of the next tile to hand out */
+    private final AtomicInteger next = new AtomicInteger();
+    /** The number of pixels rendered so far */
+    private final AtomicLong done = new AtomicLong();
+    /** The first failure of a rendering thread */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    /** Set to stop rendering */
+    private volatile boolean stopped = false;
+    /** The time to switch to the fallback, by {@link System#nanoTime()} */
+    private long deadline;
+    /** Renders a pixel after the deadline, null if there is no deadline */
+    private PixelRenderer fallback = null;
+    /** The regions whose pixels were all rendered before the deadline */
+    private final Queue<ImageRegion> exact = new ConcurrentLinkedQueue<>();
+    /** The number of pixels of the exact regions */
+    private final AtomicLong exactPixels = new AtomicLong();
+    /** Completed when the render is done */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    /** The time the current pass started, by {@link System#nanoTime()} */
+    private volatile long startTime;
+    /** Receives the progress, null if it is not required */
+    private final ProgressListener listener;
+    /** The last progress reported to the listener, in tenths of a percent */
+    private volatile long reported = -1;
+    /** Held while the listener is called */
+    private final Object reportLock = new Object();
+
+    /**
+     * Constructs a scheduler for an image
+     *
+     * @param nX       the number of pixel columns
+     * @param nY       the number of pixel rows
+     * @param tileSize the width and height of a tile, in pixels
+     * @param listener receives the progress, null if it is not required
+     * @throws IllegalArgumentException if a size is not positive
+     */
+    TileScheduler(int nX, int nY, int tileSize, ProgressListener listener) {
+        if (nX <= 0 || nY <= 0 || tileSize <= 0)
+            throw new IllegalArgumentException("The image and tile sizes must be positive");
+        this.nX = nX;
+        this.nY = nY;
+        this.tileSize = tileSize;
+        this.listener = listener;
+        tilesInRow = (nX + tileSize - 1) / tileSize;
+        tileCount = tilesInRow * ((nY + tileSize - 1) / tileSize);
+    }
+
+    /**
+     * Sets a deadline for the render: from that time on, the pixels are rendered by a
+     * fallback renderer, e.g. a cheaper rendering of a lower quality. Set before the
+     * render starts, or between two passes.
+     *
+     * @param deadline the deadline, by {@link System#nanoTime()}
+     * @param fallback renders a pixel after the deadline
+     */
+    void setDeadline(long deadline, PixelRenderer fallback) {
+        this.deadline = deadline;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Hands out the next tile. Safe to call from several threads.
+     *
+     * @return the tile, or null if all the tiles were handed out or the scheduler was stopped
+     */
+    ImageRegion nextTile() {
+        if (stopped)
+            return null;
+        int tile = next.getAndIncrement();
+        if (tile >= tileCount)
+            return null;
+        int fromCol = tile % tilesInRow * tileSize, fromRow = tile / tilesInRow * tileSize;
+        return new ImageRegion(fromCol, fromRow, Math.min(fromCol + tileSize, nX), Math.min(fromRow + tileSize, nY));
+    }
+
+    /**
+     * Records that all the pixels of a tile were rendered
+     *
+     * @param tile the tile
+     */
+    void tileDone(ImageRegion tile) {
+        done.addAndGet(tile.size());
+        if (listener != null)
+            report();
+    }
+
+    /**
+     * Reports the progress to the listener if it advanced by a tenth of a percent since the
+     * last report; the listener is called by one thread at a time
+     */
+    private void report() {
+        if (1000L * done.get() / totalPixels() <= reported)
+            return;
+        synchronized (reportLock) {
+            long current = done.get();
+            long step = 1000L * current / totalPixels();
+            if (step <= reported)
+                return;
+            reported = step;
+            listener.progress(progress(current));
+        }
+    }
+
+    /**
+     * Stops the render: no more pixels are rendered, and the regions in progress are left
+     * unfinished
+     */
+    @Override
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * @return the number of pixels rendered so far
+     */
+    long donePixels() {
+        return done.get();
+    }
+
+    /**
+     * @return the number of pixels of the image
+     */
+    long totalPixels() {
+        return (long) nX * nY;
+    }
+
+    /**
+     * @return the regions whose pixels were all rendered before the render was stopped or
+     *         reached its deadline, in the current pass if it has several
+     */
+    @Override
+    public List<ImageRegion> exactRegions() {
+        return List.copyOf(exact);
+    }
+
+    /**
+     * @return true if all the pixels were rendered before the render was stopped or
+     *         reached its deadline, in the current pass if it has several
+     */
+    @Override
+    public boolean isExact() {
+        return exactPixels.get() == totalPixels();
+    }
+
+    /**
+     * @return the progress of the render so far, of the current pass if it has several
+     */
+    @Override
+    public RenderProgress progress() {
+        return progress(donePixels());
+    }
+
+    /**
+     * @param donePixels the number of pixels rendered so far
+     * @return the progress of the render with that number of pixels
+     */
+    private RenderProgress progress(long donePixels) {
+        return new RenderProgress(donePixels, totalPixels(), Duration.ofNanos(System.nanoTime() - startTime));
+    }
+
+    /**
+     * Starts rendering all the pixels by a number of threads.
+     * If a thread fails, the others stop and the render completes with the failure.
+     *
+     * @param threadCount the number of rendering threads
+     * @param renderer    renders a single pixel
+     * @return completed when all the threads are done
+     */
+    CompletableFuture<Void> start(int threadCount, PixelRenderer renderer) {
+        return start(threadCount, renderer, () -> null);
+    }
+
+    /**
+     * Starts rendering all the pixels by a number of threads, in passes until there is no
+     * next pass. The threads wait for each other at the end of each pass.
+     * If a thread fails, the others stop and the render completes with the failure.
+     *
+     * @param threadCount the number of rendering threads
+     * @param renderer    renders a single pixel in the first pass
+     * @param nextPass    decides on the next pass when a pass is done
+     * @return completed when all the threads are done
+     */
+    CompletableFuture<Void> start(int threadCount, PixelRenderer renderer, NextPass nextPass) {
+        startTime = System.nanoTime();
+        passRenderer = renderer;
+        int count = Math.max(1, threadCount);
+        CyclicBarrier passDone = new CyclicBarrier(count, () -> passRenderer = endPass(nextPass));
+        AtomicInteger running = new AtomicInteger(count);
+        for (int i = 0; i < count; ++i) {
+            new Thread(() -> {
+                try {
+                    for (PixelRenderer pass = passRenderer; pass != null; pass = passRenderer) {
+                        work(pass);
+                        passDone.await();
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    fail(e);
+                }
+                if (running.decrementAndGet() == 0)
+                    finish();
+            }).start();
+        }
+        return completion;
+    }
+
+    /**
+     * Starts rendering all the pixels by the tasks of a fork/join pool.
+     * If a pixel fails, the other tasks stop and the render completes with the failure.
+     *
+     * @param threadCount the parallelism of the pool
+     * @param renderer    renders a single pixel
+     * @return completed when all the regions are done
+     */
+    CompletableFuture<Void> startRecursively(int threadCount, PixelRenderer renderer) {
+        return startRecursively(threadCount, renderer, () -> null);
+    }
+
+    /**
+     * Starts rendering all the pixels by the tasks of a fork/join pool, in passes until
+     * there is no next pass. The pool renders all the passes.
+     * If a pixel fails, the other tasks stop and the render completes with the failure.
+     *
+     * @param threadCount the parallelism of the pool
+     * @param renderer    renders a single pixel in the first pass
+     * @param nextPass    decides on the next pass when a pass is done
+     * @return completed when all the regions are done
+     */
+    CompletableFuture<Void> startRecursively(int threadCount, PixelRenderer renderer, NextPass nextPass) {
+        startTime = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threadCount));
+        pool.execute(() -> {
+            try {
+                for (PixelRenderer pass = renderer; pass != null; pass = endPass(nextPass))
+                    new Region(0, 0, nX, nY, pass).invoke();
+            } catch (RuntimeException | Error e) {
+                fail(e);
+            } finally {
+                pool.shutdown();
+                finish();
+            }
+        });
+        return completion;
+    }
+
+    /**
+     * Ends a pass and starts the next one, if there is one and the render was neither
+     * stopped nor failed. Called while no pixel is rendered.
+     *
+     * @param nextPass decides on the next pass
+     * @return the renderer of the next pass, or null to end the render
+     */
+    private PixelRenderer endPass(NextPass nextPass) {
+        if (failure.get() != null)
+            return null;
+        PixelRenderer renderer;
+        try {
+            renderer = nextPass.next();
+        } catch (RuntimeException | Error e) {
+            fail(e);
+            return null;
+        }
+        if (renderer == null || stopped)
+            return null;
+        // Hand out the tiles again, and count the progress of the new pass
+        next.set(0);
+        done.set(0);
+        reported = -1;
+        exact.clear();
+        exactPixels.set(0);
+        startTime = System.nanoTime();
+        return renderer;
+    }
+
+    /**
+     * Records a failure of the render and stops it
+     *
+     * @param error the failure
+     */
+    private void fail(Throwable error) {
+        failure.compareAndSet(null, error);
+        stop();
+    }
+
+    /**
+     * Completes the render, with its first failure if there was one
+     */
+    private void finish() {
+        Throwable error = failure.get();
+        if (error == null)
+            completion.complete(null);
+        else
+            completion.completeExceptionally(error);
+    }
+
+    /**
+     * A rectangle of pixels rendered by a fork/join task, split in halves along its
+     * longer side until it is small enough
+     */
+    private class Region extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ImageRegion region;
+        private final PixelRenderer renderer;
+
+        /**
+         * Constructs the task of a region
+         *
+         * @param fromCol  the first column (inclusive)
+         * @param fromRow  the first row (inclusive)
+         * @param toCol    the last column (exclusive)
+         * @param toRow    the last row (exclusive)
+         * @param renderer renders a single pixel
+         */
+        Region(int fromCol, int fromRow, int toCol, int toRow, PixelRenderer renderer) {
+            region = new ImageRegion(fromCol, fromRow, toCol, toRow);
+            this.renderer = renderer;
+        }
+
+        @Override
+        protected void compute() {
+            if (stopped)
+                return;
+            int width = region.toCol() - region.fromCol(), height = region.toRow() - region.fromRow();
+            if (region.size() > REGION_SIZE) {
+                if (width >= height) {
+                    int middle = region.fromCol() + width / 2;
+                    invokeAll(new Region(region.fromCol(), region.fromRow(), middle, region.toRow(), renderer),
+                            new Region(middle, region.fromRow(), region.toCol(), region.toRow(), renderer));
+                } else {
+                    int middle = region.fromRow() + height / 2;
+                    invokeAll(new Region(region.fromCol(), region.fromRow(), region.toCol(), middle, renderer),
+                            new Region(region.fromCol(), middle, region.toCol(), region.toRow(), renderer));
+                }
+                return;
+            }
+            try {
+                renderRegion(region, renderer);
+            } catch (RuntimeException | Error e) {
+                fail(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Renders tiles until there are no more
+     *
+     * @param renderer renders a single pixel
+     */
+    private void work(PixelRenderer renderer) {
+        try {
+            for (ImageRegion tile = nextTile(); tile != null; tile = nextTile())
+                renderRegion(tile, renderer);
+        } catch (RuntimeException | Error e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Renders the pixels of a region, by the fallback from the deadline on, and records
+     * the region as done unless the render was stopped
+     *
+     * @param region   the region
+     * @param renderer renders a single pixel
+     */
+    private void renderRegion(ImageRegion region, PixelRenderer renderer) {
+        boolean inTime = true;
+        for (int row = region.fromRow(); row < region.toRow(); ++row)
+            for (int col = region.fromCol(); col < region.toCol(); ++col) {
+                if (stopped)
+                    return;
+                if (inTime && fallback != null && System.nanoTime() - deadline >= 0)
+                    inTime = false;
+                if (inTime)
+                    renderer.render(col, row);
+                else
+                    fallback.render(col, row);
+            }
+        if (inTime) {
+            exact.add(region);
+            exactPixels.addAndGet(region.size());
+        }
+        tileDone(region);
+    }
+}
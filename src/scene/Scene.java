@@ -1,6 +1,8 @@
 package scene;
 
+import geometries.AccelerationStructure;
 import geometries.Geometries;
+import geometries.IndexType;
 import lighting.AmbientLight;
 import lighting.LightSource;
 import primitives.Color;
@@ -13,6 +15,9 @@ import java.util.List;
  */
 
 public class Scene {
+    /** Number of shapes from which a scene is indexed by default */
+    private static final int LARGE_SCENE = 32;
+
     public final String name;
     public Color background = Color.BLACK;
     public AmbientLight ambientLight = AmbientLight.NONE;
@@ -23,6 +28,9 @@ public class Scene {
      */
     public List<LightSource> lights = new LinkedList<>();
 
+    /** Whether the container of the geometries was chosen explicitly */
+    private boolean indexChosen = false;
+
     public Scene(String name) {
         this.name = name;
     }
@@ -51,6 +59,29 @@ public class Scene {
         return this;
     }
 
+    /**
+     * Moves the geometries of the scene into a container of the given type,
+     * e.g. a spatial index for a large scene. Shapes added later go to the new container.
+     *
+     * @param index the type of the container
+     * @return this object
+     */
+    public Scene setIndex(IndexType index) {
+        this.geometries = index.copyOf(geometries);
+        indexChosen = true;
+        return this;
+    }
+
+    /**
+     * Prepares the scene before rendering: unless a container was chosen explicitly,
+     * a large scene is moved into a flat bounding volume hierarchy.
+     * The scene is expected not to change afterwards.
+     */
+    public void prepareForRendering() {
+        if (!indexChosen && !(geometries instanceof AccelerationStructure) && geometries.size() >= LARGE_SCENE)
+            geometries = IndexType.FLAT_BVH.copyOf(geometries);
+    }
+
     /**
      * setter for lights
      * @param lights list of the lights in the scene
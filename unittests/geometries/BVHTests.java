@@ -0,0 +1,30 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check all function of BVH class
+ * @author Adi and Ruth
+ *
+ */
+class BVHTests {
+
+    /**
+     * test bounding box of bounded and unbounded geometries
+     */
+    @Test
+    void testGetBoundingBox() {
+        BoundingBox box = new Sphere(new Point(1, 2, 3), 1).getBoundingBox();
+        assertEquals(0, box.minX, 1e-10, "ERROR: sphere box");
+        assertEquals(4, box.maxZ, 1e-10, "ERROR: sphere box");
+        assertNull(new Plane(new Point(0, 0, 0), new Vector(0, 0, 1)).getBoundingBox(), "ERROR: plane is unbounded");
+        assertNull(new Geometries(new Sphere(Point.ZERO, 1), new Plane(Point.ZERO, new Vector(0, 0, 1)))
+                .getBoundingBox(), "ERROR: collection with a plane is unbounded");
+    }
+
+}
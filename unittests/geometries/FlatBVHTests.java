@@ -0,0 +1,73 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+import primitives.Ray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check all function of FlatBVH class
+ * @author Adi and Ruth
+ *
+ */
+class FlatBVHTests {
+
+    /**
+     * test a hierarchy with boxes in single precision against one in double precision
+     */
+    @Test
+    void testFloatPrecision() {
+        FlatBVH bvh = new FlatBVH();
+        FlatBVH floatBvh = new FlatBVH().setPrecision(Precision.FLOAT);
+        for (int i = 0; i < 20; ++i)
+            for (int j = 0; j < 20; ++j) {
+                Sphere sphere = new Sphere(new Point(i * 3.1, j * 3.1, 0), 1.3);
+                bvh.add(sphere);
+                floatBvh.add(sphere);
+            }
+        assertEquals(Precision.FLOAT, floatBvh.getPrecision(), "ERROR TC01");
+
+        // TC01 the same intersections along a row and along a diagonal
+        Ray ray = new Ray(new Point(-5, 6.2, 0), new Vector(1, 0, 0));
+        assertEquals(bvh.findIntersections(ray).size(), floatBvh.findIntersections(ray).size(), "ERROR TC01");
+        ray = new Ray(new Point(-5, -5, 0.5), new Vector(1, 1, 0));
+        assertEquals(bvh.findIntersections(ray).size(), floatBvh.findIntersections(ray).size(), "ERROR TC01");
+        assertEquals(bvh.findClosestGeoIntersection(ray).point, floatBvh.findClosestGeoIntersection(ray).point,
+                "ERROR TC01");
+
+        // TC02 ray grazing the side of a row of spheres is not lost to rounding the boxes
+        ray = new Ray(new Point(-5, 1.3, 0), new Vector(1, 0, 0));
+        assertEquals(bvh.findIntersections(ray).size(), floatBvh.findIntersections(ray).size(), "ERROR TC02");
+
+        // TC03 switching back to double precision rebuilds the hierarchy
+        floatBvh.setPrecision(Precision.DOUBLE);
+        assertEquals(bvh.findIntersections(ray).size(), floatBvh.findIntersections(ray).size(), "ERROR TC03");
+    }
+
+    /**
+     * test the flat layout of the hierarchy
+     */
+    @Test
+    void testLayout() {
+        FlatBVH bvh = new FlatBVH();
+        // TC01 empty hierarchy has no nodes
+        assertEquals(0, bvh.getNodeCount(), "ERROR TC01");
+
+        // TC02 a full binary tree: every inner node has two children
+        for (int i = 0; i < 100; ++i)
+            bvh.add(new Sphere(new Point(i * 3, 0, 0), 1));
+        assertEquals(1, bvh.getNodeCount() % 2, "ERROR TC02");
+        assertTrue(bvh.getNodeCount() >= 100 / 4 * 2 - 1, "ERROR TC02");
+
+        // TC03 the whole row is found from both ends
+        assertEquals(200, bvh.findIntersections(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0))).size(),
+                "ERROR TC03");
+        assertEquals(new Point(298, 0, 0),
+                bvh.findClosestGeoIntersection(new Ray(new Point(400, 0, 0), new Vector(-1, 0, 0))).point,
+                "ERROR TC03");
+    }
+
+}
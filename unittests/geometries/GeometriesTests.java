@@ -49,4 +49,132 @@ class GeometriesTests {
         assertNull(new Geometries().findIntersections(ray), "ERROR TC05");
     }
 
-}
\ No newline at end of file
+    /**
+     * test Find GeoIntersections(ray, maxDistance)
+     */
+    @Test
+    void testFindGeoIntersectionsMaxDistance() {
+        Sphere s = new Sphere( new Point(0, 2, 2),1);
+        Triangle t = new Triangle(new Point(3, 0, 0), new Point(-3, 0, 0), new Point(0, 0, 3));
+        Plane p = new Plane(new Point(2, 4, 0), new Point(-2, 4, 0), new Point(0, 4, 7));
+        Geometries geometries = new Geometries(s, t, p);
+        // the ray crosses the triangle (y=0), the sphere (y=1,3) and the plane (y=4)
+        Ray ray = new Ray(new Point(0, -2, 2), new Vector(0, 1, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 only the triangle and the near side of the sphere are in range
+        assertEquals(2, geometries.findGeoIntersections(ray, 3.5).size(), "ERROR TC01");
+
+        // TC02 nothing is in range
+        assertNull(geometries.findGeoIntersections(ray, 1), "ERROR TC02");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC03 the farthest point is exactly at the distance
+        assertEquals(4, geometries.findGeoIntersections(ray, 6).size(), "ERROR TC03");
+    }
+
+    /**
+     * test Find Closest GeoIntersection(ray)
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Sphere s = new Sphere( new Point(0, 2, 2),1);
+        Triangle t = new Triangle(new Point(3, 0, 0), new Point(-3, 0, 0), new Point(0, 0, 3));
+        Plane p = new Plane(new Point(2, 4, 0), new Point(-2, 4, 0), new Point(0, 4, 7));
+        Geometries geometries = new Geometries(p, s, t);
+        Ray ray = new Ray(new Point(0, -2, 2), new Vector(0, 1, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 the triangle is the closest although it is the last in the collection
+        Intersectable.GeoPoint closest = geometries.findClosestGeoIntersection(ray);
+        assertEquals(t, closest.geometry, "ERROR TC01");
+        assertEquals(new Point(0, 0, 2), closest.point, "ERROR TC01");
+        assertEquals(2, closest.t, 1e-10, "ERROR TC01");
+
+        // TC02 the ray starts after the triangle and inside the sphere
+        ray = new Ray(new Point(0, 2, 2), new Vector(0, 1, 0));
+        closest = geometries.findClosestGeoIntersection(ray);
+        assertEquals(s, closest.geometry, "ERROR TC02");
+        assertEquals(new Point(0, 3, 2), closest.point, "ERROR TC02");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC03 the closest point is beyond the distance
+        assertNull(geometries.findClosestGeoIntersection(ray, 0.5), "ERROR TC03");
+
+        // TC04 nothing is hit
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(0, -2, 10), new Vector(0, 0, 1))),
+                "ERROR TC04");
+
+        // TC05 two coplanar shapes hit at the same distance, the first one added is returned
+        Polygon square = new Polygon(new Point(-1, 0, 1), new Point(1, 0, 1), new Point(1, 0, 3), new Point(-1, 0, 3));
+        ray = new Ray(new Point(0, -2, 2), new Vector(0, 1, 0));
+        assertEquals(square, new Geometries(square, t).findClosestGeoIntersection(ray).geometry, "ERROR TC05");
+        assertEquals(t, new Geometries(t, square).findClosestGeoIntersection(ray).geometry, "ERROR TC05");
+    }
+
+    /**
+     * test Find Any Intersection(ray, maxDistance, blocker)
+     */
+    @Test
+    void testFindAnyIntersection() {
+        Sphere s = new Sphere( new Point(0, 2, 2),1);
+        Triangle t = new Triangle(new Point(3, 0, 0), new Point(-3, 0, 0), new Point(0, 0, 3));
+        Plane p = new Plane(new Point(2, 4, 0), new Point(-2, 4, 0), new Point(0, 4, 7));
+        Geometries geometries = new Geometries(s, t, p);
+        Ray ray = new Ray(new Point(0, -2, 2), new Vector(0, 1, 0));
+        int[] count = {0};
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 a blocker that never stops is given all the intersections in range
+        assertFalse(geometries.findAnyIntersection(ray, 3.5, g -> ++count[0] < 0), "ERROR TC01");
+        assertEquals(2, count[0], "ERROR TC01");
+
+        // TC02 the search stops at the first intersection
+        count[0] = 0;
+        assertTrue(geometries.findAnyIntersection(ray, 100, g -> ++count[0] > 0), "ERROR TC02");
+        assertEquals(1, count[0], "ERROR TC02");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC03 nothing in range
+        assertFalse(geometries.findAnyIntersection(ray, 1, g -> true), "ERROR TC03");
+    }
+
+    /**
+     * test add, remove and replace of shapes
+     */
+    @Test
+    void testEdit() {
+        Sphere s = new Sphere(new Point(0, 0, 0), 1);
+        Sphere other = new Sphere(new Point(0, 0, 5), 1);
+        Geometries geometries = new Geometries(s);
+        Ray ray = new Ray(new Point(0, 0, -5), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 collection built with starting shapes can be extended
+        geometries.add(other);
+        assertEquals(4, geometries.findIntersections(ray).size(), "ERROR TC01");
+
+        // TC02 replaced shape
+        Sphere moved = new Sphere(new Point(0, 0, 10), 1);
+        assertTrue(geometries.replace(other, moved), "ERROR TC02");
+        assertEquals(new Point(0, 0, 11), geometries.findIntersections(ray).get(3), "ERROR TC02");
+
+        // TC03 removed shape
+        assertTrue(geometries.remove(s), "ERROR TC03");
+        assertEquals(2, geometries.findIntersections(ray).size(), "ERROR TC03");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC04 shape not in the collection
+        assertFalse(geometries.remove(s), "ERROR TC04");
+        assertFalse(geometries.replace(s, other), "ERROR TC04");
+    }
+
+}
@@ -0,0 +1,90 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+import primitives.Ray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check all function of GeometryBuckets class
+ * @author Adi and Ruth
+ *
+ */
+class GeometryBucketsTests {
+    private final Sphere s = new Sphere(new Point(0, 2, 2), 1);
+    private final Triangle t = new Triangle(new Point(3, 0, 0), new Point(-3, 0, 0), new Point(0, 0, 3));
+    private final Plane p = new Plane(new Point(2, 4, 0), new Point(-2, 4, 0), new Point(0, 4, 7));
+    private final Polygon q = new Polygon(new Point(-1, 6, 0), new Point(1, 6, 0), new Point(1, 6, 4),
+            new Point(-1, 6, 4));
+    /** a shape of a type without a bucket of its own */
+    private final Sphere other = new Sphere(new Point(0, 8, 2), 0.5) {
+    };
+
+    /**
+     * test Find Intersections(ray)
+     */
+    @Test
+    void testFindIntersections() {
+        GeometryBuckets buckets = new GeometryBuckets(other, q, p, t, s);
+        Geometries list = new Geometries(other, q, p, t, s);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 the same intersections as a plain list, grouped by the type of the shapes
+        Ray ray = new Ray(new Point(0, -2, 2), new Vector(0, 1, 0));
+        assertEquals(7, buckets.findIntersections(ray).size(), "ERROR TC01");
+        assertTrue(buckets.findIntersections(ray).containsAll(list.findIntersections(ray)), "ERROR TC01");
+
+        // TC02 the closest intersection is the same as in a plain list
+        assertEquals(list.findClosestGeoIntersection(ray), buckets.findClosestGeoIntersection(ray), "ERROR TC02");
+        ray = new Ray(new Point(0, 5, 2), new Vector(0, 1, 0));
+        assertEquals(q, buckets.findClosestGeoIntersection(ray).geometry, "ERROR TC02");
+        ray = new Ray(new Point(0, 7, 2), new Vector(0, 1, 0));
+        assertEquals(other, buckets.findClosestGeoIntersection(ray).geometry, "ERROR TC02");
+
+        // TC03 any-hit query stops at the blocker
+        assertTrue(buckets.findAnyIntersection(ray, 100, g -> g == other), "ERROR TC03");
+        assertFalse(buckets.findAnyIntersection(ray, 100, g -> g == s), "ERROR TC03");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC04 empty collection
+        assertNull(new GeometryBuckets().findIntersections(ray), "ERROR TC04");
+
+        // TC05 two coplanar shapes hit at the same distance, the first one added is the closest
+        // although its type is tested later
+        Polygon square = new Polygon(new Point(-1, 0, 1), new Point(1, 0, 1), new Point(1, 0, 3), new Point(-1, 0, 3));
+        GeometryBuckets coplanar = new GeometryBuckets(square, t);
+        ray = new Ray(new Point(0, -2, 2), new Vector(0, 1, 0));
+        assertEquals(square, coplanar.findClosestGeoIntersection(ray).geometry, "ERROR TC05");
+        RayPacket packet = new RayPacket();
+        packet.add(ray);
+        coplanar.findClosestGeoIntersections(packet);
+        assertEquals(square, packet.getClosest(0).geometry, "ERROR TC05");
+        assertEquals(t, new GeometryBuckets(t, square).findClosestGeoIntersection(ray).geometry, "ERROR TC05");
+    }
+
+    /**
+     * test nested collections and edits
+     */
+    @Test
+    void testEdit() {
+        GeometryBuckets buckets = new GeometryBuckets(new Geometries(s, new Geometries(t)));
+        Ray ray = new Ray(new Point(0, -2, 2), new Vector(0, 1, 0));
+
+        // TC01 the shapes of nested collections are found
+        assertEquals(t, buckets.findClosestGeoIntersection(ray).geometry, "ERROR TC01");
+        assertEquals(3, buckets.findIntersections(ray).size(), "ERROR TC01");
+
+        // TC02 shapes added after a query are found as well
+        buckets.add(p);
+        assertEquals(4, buckets.findIntersections(ray).size(), "ERROR TC02");
+
+        // TC03 the container is created by its index type
+        assertInstanceOf(GeometryBuckets.class, IndexType.BUCKETS.create(), "ERROR TC03");
+    }
+
+}
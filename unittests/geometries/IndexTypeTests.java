@@ -0,0 +1,108 @@
+package geometries;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import primitives.Point;
+import primitives.Vector;
+import primitives.Ray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check the functions every container of IndexType must share
+ * @author Adi and Ruth
+ *
+ */
+class IndexTypeTests {
+
+    /**
+     * test Find Intersections(ray)
+     * @param type the type of the container
+     */
+    @ParameterizedTest
+    @EnumSource(IndexType.class)
+    void testFindIntersections(IndexType type) {
+        Sphere s = new Sphere( new Point(0, 2, 2),1);
+        Triangle t = new Triangle(new Point(3, 0, 0), new Point(-3, 0, 0), new Point(0, 0, 3));
+        Plane p = new Plane(new Point(2, 4, 0), new Point(-2, 4, 0), new Point(0, 4, 7));
+        Geometries geometries = type.create();
+        geometries.add(s, t, p);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 cross part of the geometries (2 from 3)
+        Ray ray = new Ray(new Point(0, -2, 4.1), new Vector(0, 4, -1.8));
+        assertEquals(3, geometries.findIntersections(ray).size(), "ERROR TC01");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC02 cross all geometries
+        ray = new Ray(new Point(0, -2, 0.9), new Vector(0, 4, 1.4));
+        assertEquals(4, geometries.findIntersections(ray).size(), "ERROR TC02");
+
+        // TC03 cross only the plane (unbounded, kept beside an index)
+        ray = new Ray(new Point(10, 0, 10), new Vector(0, 1, 0));
+        assertEquals(1, geometries.findIntersections(ray).size(), "ERROR TC03");
+
+        // TC04 cross nothing
+        ray = new Ray(new Point(-2, -2.3, 4.1), new Vector(0, -0.2, -0.7));
+        assertNull(geometries.findIntersections(ray), "ERROR TC04");
+
+        // TC05 empty container
+        assertNull(type.create().findIntersections(ray), "ERROR TC05");
+    }
+
+    /**
+     * test that a container over many shapes finds the same intersections as a plain list
+     * @param type the type of the container
+     */
+    @ParameterizedTest
+    @EnumSource(IndexType.class)
+    void testManyShapes(IndexType type) {
+        Geometries list = new Geometries();
+        Geometries geometries = type.create();
+        for (int i = 0; i < 20; ++i)
+            for (int j = 0; j < 20; ++j) {
+                Sphere sphere = new Sphere(new Point(i * 3, j * 3, 0), 1);
+                list.add(sphere);
+                geometries.add(sphere);
+            }
+        // a large sphere spanning many cells and nodes must be reported once
+        Sphere big = new Sphere(new Point(30, 30, 0), 10);
+        list.add(big);
+        geometries.add(big);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 ray along a row of spheres
+        Ray ray = new Ray(new Point(-5, 6, 0), new Vector(1, 0, 0));
+        assertEquals(40, geometries.findIntersections(ray).size(), "ERROR TC01");
+
+        // TC02 diagonal ray through the field and the large sphere
+        ray = new Ray(new Point(-5, -5, 0.5), new Vector(1, 1, 0));
+        assertEquals(list.findIntersections(ray).size(), geometries.findIntersections(ray).size(), "ERROR TC02");
+
+        // TC03 the closest intersection is the same as in a plain list, from any direction
+        for (Ray r : new Ray[]{ray, new Ray(new Point(70, 61, 0.2), new Vector(-1, -0.9, 0)),
+                new Ray(new Point(30, 30, 50), new Vector(0.01, 0.02, -1))}) {
+            Intersectable.GeoPoint expected = list.findClosestGeoIntersection(r);
+            Intersectable.GeoPoint closest = geometries.findClosestGeoIntersection(r);
+            assertEquals(expected.point, closest.point, "ERROR TC03");
+            assertEquals(expected.geometry, closest.geometry, "ERROR TC03");
+        }
+
+        // TC04 the any-hit query stops in range only
+        ray = new Ray(new Point(-5, 6, 0), new Vector(1, 0, 0));
+        assertFalse(geometries.findAnyIntersection(ray, 3.5, g -> true), "ERROR TC04");
+        assertTrue(geometries.findAnyIntersection(ray, 4.5, g -> true), "ERROR TC04");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC05 shapes added after the first query are found as well
+        geometries.add(new Sphere(new Point(-3, 6, 0), 1));
+        assertEquals(42, geometries.findIntersections(ray).size(), "ERROR TC05");
+        assertEquals(new Point(-4, 6, 0), geometries.findClosestGeoIntersection(ray).point, "ERROR TC05");
+    }
+
+}
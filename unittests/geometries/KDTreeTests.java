@@ -0,0 +1,69 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+import primitives.Ray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check all function of KDTree class
+ * @author Adi and Ruth
+ *
+ */
+class KDTreeTests {
+
+    /**
+     * test rays in the split planes of a tree over many walls
+     */
+    @Test
+    void testSplitPlane() {
+        Geometries list = new Geometries();
+        KDTree tree = new KDTree();
+        for (int i = 0; i < 20; ++i)
+            for (int j = 0; j < 20; ++j) {
+                Polygon wall = new Polygon(new Point(i * 3, j * 3, 0), new Point(i * 3 + 2, j * 3, 0),
+                        new Point(i * 3 + 2, j * 3, 2), new Point(i * 3, j * 3, 2));
+                list.add(wall);
+                tree.add(wall);
+            }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC01 ray in the plane of a row of walls, which may be a split plane, hits none of them
+        Ray ray = new Ray(new Point(-5, 3, 1), new Vector(1, 0, 0));
+        assertNull(tree.findIntersections(ray), "ERROR TC01");
+        ray = new Ray(new Point(-5, 3, 1), new Vector(1, 0.1, 0));
+        assertEquals(list.findClosestGeoIntersection(ray).point, tree.findClosestGeoIntersection(ray).point,
+                "ERROR TC01");
+    }
+
+    /**
+     * test the statistics of the built tree
+     */
+    @Test
+    void testStatistics() {
+        KDTree tree = new KDTree();
+        // TC01 empty tree has no nodes
+        assertEquals(0, tree.getStatistics().nodes(), "ERROR TC01");
+
+        // TC02 a row of shapes is split into small leaves
+        for (int i = 0; i < 100; ++i)
+            tree.add(new Sphere(new Point(i * 3, 0, 0), 1));
+        KDTree.Statistics statistics = tree.getStatistics();
+        assertEquals(statistics.nodes(), 2 * statistics.leaves() - 1, "ERROR TC02");
+        assertEquals(100, statistics.references(), "ERROR TC02");
+        assertTrue(statistics.maxLeafSize() <= 4, "ERROR TC02");
+        assertTrue(statistics.maxDepth() > 1, "ERROR TC02");
+
+        // TC03 the whole row is found from both ends
+        assertEquals(200, tree.findIntersections(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0))).size(),
+                "ERROR TC03");
+        assertEquals(new Point(298, 0, 0),
+                tree.findClosestGeoIntersection(new Ray(new Point(400, 0, 0), new Vector(-1, 0, 0))).point,
+                "ERROR TC03");
+    }
+
+}
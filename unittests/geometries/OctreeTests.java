@@ -0,0 +1,71 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+import primitives.Ray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check all function of Octree class
+ * @author Adi and Ruth
+ *
+ */
+class OctreeTests {
+
+    /**
+     * test adding, removing and replacing shapes of a built tree
+     */
+    @Test
+    void testEdit() {
+        Octree octree = new Octree();
+        Sphere[] row = new Sphere[100];
+        for (int i = 0; i < row.length; ++i) {
+            row[i] = new Sphere(new Point(i * 3, 0, 0), 1);
+            octree.add(row[i]);
+        }
+        Ray ray = new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 the whole row is found, in a tree of several nodes
+        assertEquals(200, octree.findIntersections(ray).size(), "ERROR TC01");
+        int nodes = octree.getNodeCount();
+        assertTrue(nodes > 1, "ERROR TC01");
+
+        // TC02 removed shape is not found any more
+        assertTrue(octree.remove(row[0]), "ERROR TC02");
+        assertEquals(198, octree.findIntersections(ray).size(), "ERROR TC02");
+        assertEquals(new Point(2, 0, 0), octree.findClosestGeoIntersection(ray).point, "ERROR TC02");
+
+        // TC03 replaced shape is found in its new place
+        Sphere moved = new Sphere(new Point(150, 0, 50), 1);
+        assertTrue(octree.replace(row[50], moved), "ERROR TC03");
+        assertEquals(196, octree.findIntersections(ray).size(), "ERROR TC03");
+        assertEquals(moved, octree.findClosestGeoIntersection(
+                new Ray(new Point(150, 0, 60), new Vector(0, 0, -1))).geometry, "ERROR TC03");
+
+        // TC04 shape added far outside the tree is found
+        Sphere far = new Sphere(new Point(-1000, 0, 0), 1);
+        octree.add(far);
+        assertEquals(far, octree.findClosestGeoIntersection(
+                new Ray(new Point(-1000, 0, 10), new Vector(0, 0, -1))).geometry, "ERROR TC04");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC05 removing a shape that is not in the tree
+        assertFalse(octree.remove(row[0]), "ERROR TC05");
+
+        // TC06 removing all the shapes leaves an empty tree
+        for (int i = 1; i < row.length; ++i)
+            if (i != 50)
+                assertTrue(octree.remove(row[i]), "ERROR TC06");
+        octree.remove(moved);
+        octree.remove(far);
+        assertNull(octree.findIntersections(ray), "ERROR TC06");
+        assertEquals(0, octree.getNodeCount(), "ERROR TC06");
+    }
+
+}
@@ -2,10 +2,13 @@ package geometries;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 
 import primitives.Point;
+import primitives.Ray;
 import primitives.Vector;
 
 /**
@@ -87,4 +90,40 @@ public class PolygonTests {
                     "Polygon's normal is not orthogonal to one of the edges");
     }
 
+    /** Test method for {@link geometries.Polygon#findIntersections(primitives.Ray)}. */
+    @Test
+    public void testFindIntersections() {
+        // a pentagon, intersected as the fan of triangles from its first vertex
+        Polygon pol = new Polygon(new Point(0, 0, 0), new Point(2, 0, 0), new Point(3, 2, 0),
+                new Point(1, 3, 0), new Point(-1, 2, 0));
+        Vector down = new Vector(0, 0, -1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Inside the first triangle of the fan
+        assertEquals(List.of(new Point(1.5, 0.5, 0)), pol.findIntersections(new Ray(new Point(1.5, 0.5, 1), down)),
+                "ERROR: TC01");
+        // TC02: Inside the last triangle of the fan
+        assertEquals(List.of(new Point(-0.5, 1.5, 0)), pol.findIntersections(new Ray(new Point(-0.5, 1.5, 1), down)),
+                "ERROR: TC02");
+        // TC03: Outside against an edge
+        assertNull(pol.findIntersections(new Ray(new Point(3, 3, 1), down)), "ERROR: TC03");
+        // TC04: Outside against the first edge
+        assertNull(pol.findIntersections(new Ray(new Point(1, -1, 1), down)), "ERROR: TC04");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: On a diagonal of the fan
+        assertEquals(List.of(new Point(1.5, 1, 0)), pol.findIntersections(new Ray(new Point(1.5, 1, 1), down)),
+                "ERROR: TC11");
+        assertEquals(List.of(new Point(0.5, 1.5, 0)), pol.findIntersections(new Ray(new Point(0.5, 1.5, 1), down)),
+                "ERROR: TC11");
+        // TC12: On an edge
+        assertNull(pol.findIntersections(new Ray(new Point(2.5, 1, 1), down)), "ERROR: TC12");
+        assertNull(pol.findIntersections(new Ray(new Point(-0.5, 1, 1), down)), "ERROR: TC12");
+        // TC13: In a vertex
+        assertNull(pol.findIntersections(new Ray(new Point(3, 2, 1), down)), "ERROR: TC13");
+        assertNull(pol.findIntersections(new Ray(new Point(0, 0, 1), down)), "ERROR: TC13");
+        // TC14: On an edge's continuation
+        assertNull(pol.findIntersections(new Ray(new Point(3, 0, 1), down)), "ERROR: TC14");
+    }
+
 }
@@ -0,0 +1,111 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+import primitives.Ray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check all function of PrimitiveBlock class
+ * @author Adi and Ruth
+ *
+ */
+class PrimitiveBlockTests {
+    private final Sphere s1 = new Sphere(new Point(0, 0, 5), 1);
+    private final Sphere s2 = new Sphere(new Point(0, 0, 10), 1);
+    private final Triangle t1 = new Triangle(new Point(-2, -2, 3), new Point(2, -2, 3), new Point(0, 2, 3));
+    private final Triangle t2 = new Triangle(new Point(-2, -2, 8), new Point(2, -2, 8), new Point(0, 2, 8));
+    private final Plane plane = new Plane(new Point(0, 0, 20), new Vector(0, 0, 1));
+
+    /**
+     * test grouping shapes into blocks
+     */
+    @Test
+    void testGroup() {
+        // TC01 spheres and triangles are grouped into a single block
+        Intersectable[] grouped = PrimitiveBlock.group(new Intersectable[]{s1, t1, plane});
+        assertEquals(1, grouped.length, "ERROR TC01");
+        assertInstanceOf(PrimitiveBlock.class, grouped[0], "ERROR TC01");
+        // TC02 shapes without spheres and triangles are left as they are
+        Intersectable[] shapes = {plane};
+        assertSame(shapes, PrimitiveBlock.group(shapes), "ERROR TC02");
+        // TC03 the box of the block is the union of the boxes, none if a shape is unbounded
+        assertNull(grouped[0].getBoundingBox(), "ERROR TC03");
+        assertEquals(11, new PrimitiveBlock(new Intersectable[]{s1, s2, t1}).getBoundingBox().maxZ, 1e-10,
+                "ERROR TC03");
+    }
+
+    /**
+     * test Find Closest GeoIntersection(ray)
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        PrimitiveBlock block = new PrimitiveBlock(new Intersectable[]{s2, t2, plane, s1, t1});
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 the nearest of all the runs is found
+        Intersectable.GeoPoint closest = block.findClosestGeoIntersection(ray);
+        assertEquals(t1, closest.geometry, "ERROR TC01");
+        assertEquals(new Point(0, 0, 3), closest.point, "ERROR TC01");
+        assertEquals(3, closest.t, 1e-10, "ERROR TC01");
+
+        // TC02 the distance limits the search
+        assertNull(block.findClosestGeoIntersection(ray, 2.5), "ERROR TC02");
+
+        // TC03 the nearest hit is in a run queried one by one
+        ray = new Ray(new Point(10, 0, 0), new Vector(0, 0, 1));
+        assertEquals(plane, block.findClosestGeoIntersection(ray).geometry, "ERROR TC03");
+
+        // TC04 the same intersection as the shapes one by one
+        ray = new Ray(new Point(0.3, -0.2, -1), new Vector(0.05, 0.02, 1));
+        Geometries list = new Geometries(s2, t2, plane, s1, t1);
+        assertEquals(list.findGeoIntersections(ray), block.findGeoIntersections(ray), "ERROR TC04");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC05 ray head inside a sphere
+        ray = new Ray(new Point(0, 0, 4.5), new Vector(0, 0, 1));
+        assertEquals(new Point(0, 0, 6), block.findClosestGeoIntersection(ray).point, "ERROR TC05");
+
+        // TC06 ray head at the center of a sphere
+        ray = new Ray(new Point(0, 0, 10), new Vector(0, 0, 1));
+        assertEquals(new Point(0, 0, 11), block.findClosestGeoIntersection(ray).point, "ERROR TC06");
+
+        // TC07 a subclass of a sphere is queried by its own intersection
+        Sphere hollow = new Sphere(new Point(0, 0, 1), 0.5) {
+            @Override
+            protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+                return null;
+            }
+        };
+        block = new PrimitiveBlock(new Intersectable[]{hollow, s1});
+        ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, 1));
+        assertEquals(s1, block.findClosestGeoIntersection(ray).geometry, "ERROR TC07");
+    }
+
+    /**
+     * test Find Any Intersection(ray)
+     */
+    @Test
+    void testFindAnyIntersection() {
+        PrimitiveBlock block = new PrimitiveBlock(new Intersectable[]{s1, t1, plane});
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, 1));
+
+        // TC01 the blocker is called for every intersection in range, in order
+        int[] count = {0};
+        assertFalse(block.findAnyIntersection(ray, 30, g -> ++count[0] < 0), "ERROR TC01");
+        assertEquals(4, count[0], "ERROR TC01");
+
+        // TC02 the search stops at the first intersection that stops the blocker
+        assertTrue(block.findAnyIntersection(ray, 30, g -> g == t1), "ERROR TC02");
+
+        // TC03 nothing in range
+        assertFalse(block.findAnyIntersection(ray, 2, g -> true), "ERROR TC03");
+    }
+
+}
@@ -0,0 +1,78 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+import primitives.Ray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check all function of RayPacket class
+ * @author Adi and Ruth
+ *
+ */
+class RayPacketTests {
+
+    /**
+     * test Find Closest GeoIntersections(packet) against the single-ray query
+     */
+    @Test
+    void testFindClosestGeoIntersections() {
+        Intersectable[] shapes = new Intersectable[3 * 10 * 10];
+        int k = 0;
+        for (int i = 0; i < 10; ++i)
+            for (int j = 0; j < 10; ++j) {
+                shapes[k++] = new Sphere(new Point(i * 4, j * 4, -10), 1.5);
+                shapes[k++] = new Triangle(new Point(i * 4 - 2, j * 4 - 2, -5), new Point(i * 4 + 1, j * 4 - 2, -5),
+                        new Point(i * 4 - 2, j * 4 + 1, -5));
+                shapes[k++] = new Polygon(new Point(i * 4, j * 4, -7), new Point(i * 4 + 1, j * 4, -7),
+                        new Point(i * 4 + 1, j * 4 + 1, -7), new Point(i * 4, j * 4 + 1, -7));
+            }
+        Plane floor = new Plane(new Point(0, 0, -20), new Vector(0, 0, 1));
+        Geometries list = new Geometries();
+        list.add(shapes);
+        list.add(floor);
+        Geometries[] containers = {list, new BVH(shapes), new FlatBVH(shapes), new UniformGrid(shapes)};
+        for (int i = 1; i < containers.length; ++i)
+            containers[i].add(floor);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 a fan of rays over the field: every container finds the same closest hits as single rays
+        for (Geometries geometries : containers) {
+            for (int start = 0; start < 64; start += RayPacket.SIZE) {
+                RayPacket packet = new RayPacket();
+                for (int lane = start; lane < start + RayPacket.SIZE; ++lane)
+                    packet.add(new Ray(new Point(18, 18, 10), new Vector(lane % 8 - 3.5, lane / 8 - 3.5, -6)));
+                geometries.findClosestGeoIntersections(packet);
+                for (int lane = 0; lane < packet.size(); ++lane) {
+                    Intersectable.GeoPoint expected = list.findClosestGeoIntersection(packet.getRay(lane));
+                    Intersectable.GeoPoint closest = packet.getClosest(lane);
+                    assertEquals(expected.geometry, closest.geometry, "ERROR TC01 lane " + lane);
+                    assertEquals(expected.point, closest.point, "ERROR TC01 lane " + lane);
+                }
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC02 a partial packet with a ray that misses everything and a ray from a sphere center
+        RayPacket packet = new RayPacket();
+        packet.add(new Ray(new Point(18, 18, 10), new Vector(0, 0, 1)));
+        packet.add(new Ray(new Point(0, 0, -10), new Vector(1, 0, 0)));
+        new FlatBVH(shapes).findClosestGeoIntersections(packet);
+        assertEquals(2, packet.size(), "ERROR TC02");
+        assertNull(packet.getClosest(0), "ERROR TC02");
+        assertEquals(new Point(1.5, 0, -10), packet.getClosest(1).point, "ERROR TC02");
+
+        // TC03 a full packet rejects more rays
+        for (int lane = packet.size(); lane < RayPacket.SIZE; ++lane)
+            packet.add(new Ray(Point.ZERO, new Vector(1, 0, 0)));
+        assertTrue(packet.isFull(), "ERROR TC03");
+        assertThrows(IllegalStateException.class, () -> packet.add(new Ray(Point.ZERO, new Vector(1, 0, 0))),
+                "ERROR TC03");
+    }
+
+}
@@ -25,6 +25,21 @@ class SphereTests {
                 "ERROR: TC 01");
     }
 
+    /**
+     * The function checks the normal kept by an intersection of the sphere
+     */
+    @Test
+    void testGeoPointNormal() {
+        Intersectable.GeoPoint gp = sphere1.findClosestGeoIntersection(new Ray(new Point(1, 2, -20), new Vector(0, 0, 1)));
+        // TC01 the normal of the intersection is the normal of the sphere at the point
+        assertEquals(new Vector(0, 0, -1), gp.getNormal(), "ERROR: TC 01");
+        // TC02 the normal is calculated once
+        assertSame(gp.getNormal(), gp.getNormal(), "ERROR: TC 02");
+        // TC03 the intersection knows its distance, and a sphere has no primitives
+        assertEquals(13, gp.t, 1e-10, "ERROR: TC 03");
+        assertEquals(-1, gp.primitive, "ERROR: TC 03");
+    }
+
     @Test
     void testFindIntersections() {
         Sphere sphere = new Sphere( new Point(1, 0, 0),1d);
@@ -0,0 +1,189 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+import primitives.Ray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check all function of TriangleMesh class
+ * @author Adi and Ruth
+ *
+ */
+class TriangleMeshTests {
+
+    /**
+     * a square in the plane z=0 from (0,0) to (n,n), made of 2*n*n faces facing up
+     *
+     * @param n the number of cells along each side
+     * @return the mesh
+     */
+    private static TriangleMesh grid(int n) {
+        return new TriangleMesh(gridVertices(n), gridFaces(n));
+    }
+
+    /**
+     * the vertices of {@link #grid(int)}
+     *
+     * @param n the number of cells along each side
+     * @return the vertex buffer
+     */
+    private static double[] gridVertices(int n) {
+        double[] vertices = new double[3 * (n + 1) * (n + 1)];
+        for (int i = 0; i <= n; ++i)
+            for (int j = 0; j <= n; ++j) {
+                int v = 3 * (i * (n + 1) + j);
+                vertices[v] = j;
+                vertices[v + 1] = i;
+            }
+        return vertices;
+    }
+
+    /**
+     * the faces of {@link #grid(int)}
+     *
+     * @param n the number of cells along each side
+     * @return the face buffer
+     */
+    private static int[] gridFaces(int n) {
+        int[] faces = new int[6 * n * n];
+        int f = 0;
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < n; ++j) {
+                int a = i * (n + 1) + j, b = a + 1, c = a + n + 1, d = c + 1;
+                faces[f++] = a;
+                faces[f++] = b;
+                faces[f++] = d;
+                faces[f++] = a;
+                faces[f++] = d;
+                faces[f++] = c;
+            }
+        return faces;
+    }
+
+    /**
+     * test constructor
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 correct mesh
+        assertEquals(2, grid(1).getFaceCount(), "ERROR TC01");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC02 a face refers to a missing vertex
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 3}), "ERROR TC02");
+        // TC03 coordinates are not triplets
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0}, new int[]{0, 0, 0}), "ERROR TC03");
+        // TC04 no faces
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0}, new int[0]), "ERROR TC04");
+    }
+
+    /**
+     * test Find Intersections(ray)
+     */
+    @Test
+    void testFindIntersections() {
+        TriangleMesh mesh = grid(30);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 ray crosses the mesh
+        Ray ray = new Ray(new Point(10.3, 20.6, 5), new Vector(0.1, 0.2, -1));
+        var result = mesh.findGeoIntersections(ray);
+        assertEquals(1, result.size(), "ERROR TC01");
+        assertEquals(new Point(10.8, 21.6, 0), result.get(0).point, "ERROR TC01");
+        assertEquals(mesh, result.get(0).geometry, "ERROR TC01");
+        // the face hit is recorded, and gives the normal without locating the point
+        Intersectable.GeoPoint closest = mesh.findClosestGeoIntersection(ray);
+        assertEquals(result.get(0).primitive, closest.primitive, "ERROR TC01");
+        assertEquals(new Vector(0, 0, 1), closest.getNormal(), "ERROR TC01");
+        assertTrue(closest.primitive >= 0 && closest.primitive < mesh.getFaceCount(), "ERROR TC01");
+
+        // TC02 ray misses the mesh
+        assertNull(mesh.findIntersections(new Ray(new Point(40, 20, 5), new Vector(0, 0, -1))), "ERROR TC02");
+
+        // TC03 the mesh is behind the ray
+        assertNull(mesh.findIntersections(new Ray(new Point(10.3, 20.6, 5), new Vector(0, 0, 1))), "ERROR TC03");
+
+        // TC04 the mesh is beyond the distance
+        assertNull(mesh.findClosestGeoIntersection(ray, 4), "ERROR TC04");
+        assertFalse(mesh.findAnyIntersection(ray, 4, g -> true), "ERROR TC04");
+        assertTrue(mesh.findAnyIntersection(ray, 6, g -> true), "ERROR TC04");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC05 ray through a vertex shared by six faces is not lost between them
+        ray = new Ray(new Point(7, 9, 5), new Vector(0, 0, -1));
+        assertEquals(new Point(7, 9, 0), mesh.findClosestGeoIntersection(ray).point, "ERROR TC05");
+
+        // TC06 ray through the diagonal shared by two faces
+        ray = new Ray(new Point(3.5, 3.5, 5), new Vector(0, 0, -1));
+        assertEquals(new Point(3.5, 3.5, 0), mesh.findClosestGeoIntersection(ray).point, "ERROR TC06");
+
+        // TC07 ray in the plane of the mesh
+        assertNull(mesh.findIntersections(new Ray(new Point(-1, 3.5, 0), new Vector(1, 0, 0))), "ERROR TC07");
+    }
+
+    /**
+     * test Get Normal(point)
+     */
+    @Test
+    void testGetNormal() {
+        TriangleMesh mesh = grid(10);
+        // TC01 a point on the mesh
+        assertEquals(new Vector(0, 0, 1), mesh.getNormal(new Point(2.2, 5.7, 0)), "ERROR TC01");
+        // TC02 a point off the mesh
+        assertThrows(IllegalArgumentException.class, () -> mesh.getNormal(new Point(2.2, 5.7, 1)), "ERROR TC02");
+        // TC03 bounding box
+        assertEquals(10, mesh.getBoundingBox().maxY, 1e-10, "ERROR TC03");
+    }
+
+    /**
+     * test a mesh stored in single precision against the same mesh in double precision
+     */
+    @Test
+    void testFloatPrecision() {
+        double[] doubles = gridVertices(30);
+        float[] floats = new float[doubles.length];
+        for (int i = 0; i < doubles.length; ++i)
+            floats[i] = (float) doubles[i];
+        TriangleMesh mesh = grid(30);
+        TriangleMesh floatMesh = new TriangleMesh(floats, gridFaces(30));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 the precision of each mesh
+        assertEquals(Precision.DOUBLE, mesh.getPrecision(), "ERROR TC01");
+        assertEquals(Precision.FLOAT, floatMesh.getPrecision(), "ERROR TC01");
+
+        // TC02 ray crosses the mesh at the same point up to single precision
+        Ray ray = new Ray(new Point(10.3, 20.6, 5), new Vector(0.1, 0.2, -1));
+        Point expected = mesh.findClosestGeoIntersection(ray).point;
+        Point actual = floatMesh.findClosestGeoIntersection(ray).point;
+        assertEquals(0, expected.distance(actual), 1e-5, "ERROR TC02");
+        assertEquals(new Vector(0, 0, 1), floatMesh.getNormal(actual), "ERROR TC02");
+
+        // TC03 ray misses the mesh
+        assertNull(floatMesh.findIntersections(new Ray(new Point(40, 20, 5), new Vector(0, 0, -1))), "ERROR TC03");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC04 ray through a vertex shared by six faces is not lost between them
+        ray = new Ray(new Point(7, 9, 5), new Vector(0, 0, -1));
+        assertEquals(new Point(7, 9, 0), floatMesh.findClosestGeoIntersection(ray).point, "ERROR TC04");
+
+        // TC05 a secondary ray leaving the mesh does not hit it again
+        ray = new Ray(actual, new Vector(0.3, -0.2, 1), new Vector(0, 0, 1));
+        assertNull(floatMesh.findIntersections(ray), "ERROR TC05");
+    }
+
+}
@@ -1,6 +1,7 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
 import primitives.Point;
 import primitives.Vector;
 import primitives.Ray;
@@ -59,4 +60,30 @@ class TriangleTests {
         // TC13: Point on edge's continuation
         assertNull(triangle.findIntersections(new Ray(new Point(2, -2, 0), new Vector(0, 1, 0))), "ERROR: TC13");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the {@link Triangle#findBarycentric(Ray)} method
+     */
+    @Test
+    void testFindBarycentric() {
+        Triangle triangle = new Triangle(new Point(0, 0, 1), new Point(1, 0, 0), new Point(-1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: Inside triangle
+        assertEquals(new Double3(0.5, 0.25, 0.25),
+                triangle.findBarycentric(new Ray(new Point(0, 2, 0.5), new Vector(0, -1, 0))), "ERROR: TC01");
+
+        // TC02: Outside against edge
+        assertNull(triangle.findBarycentric(new Ray(new Point(0.5, -2, -1), new Vector(0, 1, 0))), "ERROR: TC02");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: Point on edge
+        assertNull(triangle.findBarycentric(new Ray(new Point(0.5, -2, 0), new Vector(0, 1, 0))), "ERROR: TC11");
+
+        // TC12: Near a vertex
+        assertEquals(new Double3(0.98, 0.01, 0.01),
+                triangle.findBarycentric(new Ray(new Point(0, -2, 0.98), new Vector(0, 1, 0))), "ERROR: TC12");
+    }
+}
@@ -0,0 +1,50 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+import primitives.Ray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test class to check all function of UniformGrid class
+ * @author Adi and Ruth
+ *
+ */
+class UniformGridTests {
+
+    /**
+     * test rays starting inside the grid and an explicit resolution
+     */
+    @Test
+    void testResolution() {
+        Geometries list = new Geometries();
+        UniformGrid grid = new UniformGrid();
+        for (int i = 0; i < 20; ++i)
+            for (int j = 0; j < 20; ++j) {
+                Sphere sphere = new Sphere(new Point(i * 3, j * 3, 0), 1);
+                list.add(sphere);
+                grid.add(sphere);
+            }
+        // a large sphere spanning many cells must be reported once
+        Sphere big = new Sphere(new Point(30, 30, 0), 10);
+        list.add(big);
+        grid.add(big);
+
+        // =============== Boundary Values Tests ==================
+
+        // TC01 ray starting inside the grid
+        Ray ray = new Ray(new Point(31, 15, 0), new Vector(0, 1, 0));
+        assertEquals(list.findIntersections(ray).size(), grid.findIntersections(ray).size(), "ERROR TC01");
+        assertEquals(list.findClosestGeoIntersection(ray).point, grid.findClosestGeoIntersection(ray).point,
+                "ERROR TC01");
+
+        // TC02 explicit resolution gives the same results
+        grid.setResolution(4);
+        assertEquals(4, grid.getResolution()[0], "ERROR TC02");
+        assertEquals(list.findIntersections(ray).size(), grid.findIntersections(ray).size(), "ERROR TC02");
+    }
+
+}
@@ -0,0 +1,48 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class to check that ColorAccumulator sums colors like chained Color operations
+ *
+ * @author Adi and Ruth
+ */
+class ColorAccumulatorTests {
+    private final Color c1 = new Color(10.1, 20.2, 30.3);
+    private final Color c2 = new Color(0.7, 255, 3.3);
+    private final Double3 k = new Double3(0.1, 0.5, 0.9);
+
+    /**
+     * Test method for {@link ColorAccumulator#add(Color)} and {@link ColorAccumulator#average(int)}
+     */
+    @Test
+    void testAverage() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01 the same components as adding and reducing colors
+        Color expected = Color.BLACK.add(c1).add(c2).add(c1).reduce(3);
+        Color actual = new ColorAccumulator().add(c1).add(c2).add(c1).average(3);
+        assertEquals(expected.toString(), actual.toString(), "ERROR TC01");
+
+        // =============== Boundary Values Tests ==================
+        // TC11 nothing to average
+        assertThrows(IllegalArgumentException.class, () -> new ColorAccumulator().average(0), "ERROR TC11");
+    }
+
+    /**
+     * Test method for {@link ColorAccumulator#add(Color, Double3, double)}
+     */
+    @Test
+    void testAddScaled() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01 the same components as adding scaled colors
+        Color expected = c1.add(c2.scale(k.scale(0.3)), c1.scale(k.scale(2)));
+        Color actual = new ColorAccumulator(c1).add(c2, k, 0.3).add(c1, k, 2).toColor();
+        assertEquals(expected.toString(), actual.toString(), "ERROR TC01");
+
+        // =============== Boundary Values Tests ==================
+        // TC11 a negative scale
+        assertThrows(IllegalArgumentException.class, () -> new ColorAccumulator().add(c1, k, -1), "ERROR TC11");
+    }
+}
@@ -37,6 +37,20 @@ class PointTests {
         assertThrows(IllegalArgumentException.class, () -> p1.subtract(p1), "the subtracting does not work correctly");
     }
 
+    /**
+     * checking if the non-throwing subtracting work correctly
+     */
+    @Test
+    void testSubtractOrNull() {
+        // =======Equivalence Partitions Tests=======
+        // TC01: the same difference as subtract
+        assertEquals(new Vector(1, 1, 1), p2.subtractOrNull(p1), "ERROR: TC01");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: subtraction of a point itself gives no vector
+        assertNull(p1.subtractOrNull(p1), "ERROR: TC11");
+    }
+
     /**
      * checking if the DistanceSquared function work correctly
      */
@@ -67,6 +67,21 @@ import static org.junit.jupiter.api.Assertions.*;
             assertEquals(a, ray.findClosestPoint(points), "Returned wrong result");
         }
 
+        /**
+         * Test method for {@link primitives.Ray#findClosestGeoPoint(List)}.
+         */
+        @Test
+        void testFindClosestGeoPoint() {
+            Ray ray = new Ray(new Point(0, 0, 0), new Vector(1, 0, 0));
+            var a = new geometries.Intersectable.GeoPoint(null, new Point(2, 0, 0), 2);
+            var b = new geometries.Intersectable.GeoPoint(null, new Point(3, 0, 0));
+            // TC01: distances known by the intersections are compared with computed ones
+            assertSame(a, ray.findClosestGeoPoint(List.of(b, a)), "Returned wrong result");
+            // TC02: the known distance is used rather than the distance of the point
+            var c = new geometries.Intersectable.GeoPoint(null, new Point(5, 0, 0), 1);
+            assertSame(c, ray.findClosestGeoPoint(List.of(a, b, c)), "Returned wrong result");
+        }
+
     }
 
 
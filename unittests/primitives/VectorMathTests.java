@@ -0,0 +1,64 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class to check that the kernels of VectorMath agree with the methods of Vector
+ *
+ * @author Adi and Ruth
+ */
+class VectorMathTests {
+    private final Vector u = new Vector(1, 2, 3);
+    private final Vector v = new Vector(-2, 0.5, 4);
+    private final Vector d = new Vector(0.3, -1, 2).normalize();
+
+    /**
+     * Test method for {@link VectorMath#dot} and {@link VectorMath#lengthSquared}
+     */
+    @Test
+    void testDot() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01 the same results as the vector methods
+        assertEquals(u.dotProduct(v), VectorMath.dot(u.getX(), u.getY(), u.getZ(), v.getX(), v.getY(), v.getZ()),
+                "ERROR TC01");
+        assertEquals(u.lengthSquared(), VectorMath.lengthSquared(u.getX(), u.getY(), u.getZ()), "ERROR TC01");
+    }
+
+    /**
+     * Test method for {@link VectorMath#side} and {@link VectorMath#normalizedSide}
+     */
+    @Test
+    void testSide() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01 the same results as the vector methods
+        Vector cross = u.crossProduct(v);
+        assertEquals(d.dotProduct(cross), VectorMath.side(d.getX(), d.getY(), d.getZ(),
+                u.getX(), u.getY(), u.getZ(), v.getX(), v.getY(), v.getZ()), "ERROR TC01");
+        assertEquals(cross.normalize().dotProduct(d), VectorMath.normalizedSide(d.getX(), d.getY(), d.getZ(),
+                u.getX(), u.getY(), u.getZ(), v.getX(), v.getY(), v.getZ()), "ERROR TC01");
+
+        // =============== Boundary Values Tests ==================
+        // TC11 parallel vectors have no side
+        assertTrue(Double.isNaN(VectorMath.side(1, 0, 0, 1, 2, 3, 2, 4, 6)), "ERROR TC11");
+        assertTrue(Double.isNaN(VectorMath.normalizedSide(1, 0, 0, 1, 2, 3, 2, 4, 6)), "ERROR TC11");
+    }
+
+    /**
+     * Test method for {@link VectorMath#normalized} and {@link VectorMath#reflect}
+     */
+    @Test
+    void testVectors() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01 the same results as the vector methods
+        assertEquals(u.normalize(), VectorMath.normalized(u.getX(), u.getY(), u.getZ()), "ERROR TC01");
+        Vector n = v.normalize();
+        assertEquals(u.subtract(n.scale(2 * u.dotProduct(n))), VectorMath.reflect(u, n, u.dotProduct(n)),
+                "ERROR TC01");
+
+        // =============== Boundary Values Tests ==================
+        // TC11 the zero vector cannot be normalized
+        assertThrows(IllegalArgumentException.class, () -> VectorMath.normalized(0, 0, 0), "ERROR TC11");
+    }
+}
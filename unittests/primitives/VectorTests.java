@@ -98,6 +98,15 @@ class VectorTests {
         // TC01: Simple test
         assertEquals( 1d, n.lengthSquared(), 0.00001,"wrong normalized vector length");
         assertEquals( new Vector(0, 0.6, 0.8), n,"wrong normalized vector");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A normalized vector is not normalized again, also when flipped
+        assertFalse(v.isNormalized(), "vector should not be known as normalized");
+        assertTrue(n.isNormalized(), "normalized vector should be known as normalized");
+        assertSame(n, n.normalize(), "normalized vector was normalized again");
+        assertTrue(n.scale(-1).isNormalized(), "flipped normalized vector should be known as normalized");
+        assertFalse(n.scale(2).isNormalized(), "scaled vector should not be known as normalized");
+        assertSame(n, new Ray(Point.ZERO, n).direction, "ray direction was normalized again");
     }
 
     /**
@@ -0,0 +1,180 @@
+package renderer;
+
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * test class to check all function of ProgressiveRender class
+ * @author Adi and Ruth
+ *
+ */
+class ProgressiveRenderTests {
+    /** Scene of the tests */
+    private final Scene scene = new Scene("Test scene").setBackground(new Color(75, 127, 90));
+
+    /**
+     * An image writer that keeps the colors of the pixels
+     */
+    private static class PixelsWriter extends ImageWriter {
+        /** The colors of the pixels, by row and column */
+        final Color[][] pixels = new Color[30][40];
+
+        PixelsWriter() {
+            super("progressive test", 40, 30);
+        }
+
+        @Override
+        public void writePixel(int xIndex, int yIndex, Color color) {
+            pixels[yIndex][xIndex] = color;
+            super.writePixel(xIndex, yIndex, color);
+        }
+    }
+
+    /**
+     * @param rayTracer   the ray tracer of the camera
+     * @param imageWriter the image writer of the camera
+     * @return a camera looking at the scene
+     */
+    private Camera camera(RayTracerBase rayTracer, ImageWriter imageWriter) {
+        return Camera.getBuilder()
+                .setRayTracer(rayTracer)
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpDistance(100)
+                .setVpSize(200, 200)
+                .setImageWriter(imageWriter)
+                .build();
+    }
+
+    /**
+     * test the order of the strata of the passes
+     */
+    @Test
+    void testStrataOrder() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 the center first, then the farthest corner, and every stratum once
+        int[] order = ProgressiveRender.strataOrder(3, 9);
+        assertEquals(4, order[0], "ERROR TC01");
+        assertEquals(0, order[1], "ERROR TC01");
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8}, Arrays.stream(order).sorted().toArray(), "ERROR TC01");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC02 no stratum at the center, the first one nearest to it
+        assertArrayEquals(new int[]{0, 3, 1, 2}, ProgressiveRender.strataOrder(2, 4), "ERROR TC02");
+        // TC03 a single stratum
+        assertArrayEquals(new int[]{0}, ProgressiveRender.strataOrder(1, 1), "ERROR TC03");
+        // TC04 some of the strata
+        assertEquals(3, ProgressiveRender.strataOrder(9, 3).length, "ERROR TC04");
+    }
+
+    /**
+     * test rendering the image in passes
+     */
+    @Test
+    void testProgressive() {
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d));
+        PixelsWriter regular = new PixelsWriter();
+        camera(new SimpleRayTracer(scene), regular).setRaynum(3).renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 all the samples: a snapshot after each pass, doubling the samples, and the image
+        // of a regular render
+        PixelsWriter progressive = new PixelsWriter();
+        List<Integer> passes = new ArrayList<>(), samples = new ArrayList<>();
+        RenderSession session = camera(new SimpleRayTracer(scene), progressive).setRaynum(3)
+                .setMultiThreading(3).setProgressive(9)
+                .setSnapshotListener((pass, count, imageWriter) -> {
+                    assertSame(progressive, imageWriter, "ERROR TC01");
+                    passes.add(pass);
+                    samples.add(count);
+                }).startRender();
+        session.await();
+        assertEquals(List.of(1, 2, 3, 4, 5), passes, "ERROR TC01");
+        assertEquals(List.of(1, 2, 4, 8, 9), samples, "ERROR TC01");
+        assertTrue(session.isExact(), "ERROR TC01");
+        for (int row = 0; row < 30; ++row)
+            for (int col = 0; col < 40; ++col)
+                assertEquals(0, progressive.pixels[row][col].maxDifference(regular.pixels[row][col]), 1e-6,
+                        "ERROR TC01");
+
+        // TC02 stops at a number of samples, by fork/join tasks
+        samples.clear();
+        camera(new SimpleRayTracer(scene), progressive).setRaynum(3).setForkJoin(true).setProgressive(4)
+                .setSnapshotListener((pass, count, imageWriter) -> samples.add(count)).renderImage();
+        assertEquals(List.of(1, 2, 4), samples, "ERROR TC02");
+
+        // TC03 stops once a pass changes no pixel, here an empty scene after pass 2
+        passes.clear();
+        Scene empty = new Scene("Empty scene").setBackground(new Color(75, 127, 90));
+        session = camera(new SimpleRayTracer(empty), progressive).setRaynum(3).setProgressive(9).setConvergence(1)
+                .setSnapshotListener((pass, count, imageWriter) -> passes.add(pass)).startRender();
+        session.await();
+        assertEquals(List.of(1, 2), passes, "ERROR TC03");
+        assertTrue(session.isExact(), "ERROR TC03");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC04 a single sample is a render by a ray through the center of the pixel
+        PixelsWriter single = new PixelsWriter();
+        camera(new SimpleRayTracer(empty), single).setProgressive(5).renderImage();
+        assertEquals(empty.background.toString(), single.pixels[15][20].toString(), "ERROR TC04");
+    }
+
+    /**
+     * test stopping a progressive render by its time budget and by cancelling it
+     */
+    @Test
+    void testStop() {
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d));
+        // a ray tracer that is slow for every ray
+        SimpleRayTracer slow = new SimpleRayTracer(scene) {
+            @Override
+            public Color traceRay(Ray ray) {
+                try {
+                    Thread.sleep(0, 200_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.traceRay(ray);
+            }
+        };
+        List<Integer> passes = new ArrayList<>();
+
+        // TC01 out of budget in pass 1, the rest of the pixels are rendered by a ray through
+        // their center and the render stops
+        PixelsWriter progressive = new PixelsWriter();
+        RenderSession session = camera(slow, progressive).setRaynum(5).setProgressive(25)
+                .setTimeBudget(Duration.ofMillis(50))
+                .setSnapshotListener((pass, count, imageWriter) -> passes.add(pass)).startRender();
+        session.await();
+        assertFalse(session.isExact(), "ERROR TC01");
+        assertTrue(session.exactRegions().isEmpty(), "ERROR TC01");
+        assertEquals(List.of(1), passes, "ERROR TC01");
+        for (Color[] row : progressive.pixels)
+            for (Color pixel : row)
+                assertNotNull(pixel, "ERROR TC01");
+
+        // TC02 a cancelled render does not start another pass
+        passes.clear();
+        session = camera(slow, new PixelsWriter()).setRaynum(5).setProgressive(25)
+                .setSnapshotListener((pass, count, imageWriter) -> passes.add(pass)).startRender();
+        session.cancel();
+        session.await();
+        assertFalse(session.isExact(), "ERROR TC02");
+        assertEquals(List.of(1), passes, "ERROR TC02");
+    }
+}
@@ -0,0 +1,127 @@
+package renderer;
+
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+import scene.Scene;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * test class to check all function of RenderSession class
+ * @author Adi and Ruth
+ *
+ */
+class RenderSessionTests {
+    /** Scene of the tests */
+    private final Scene scene = new Scene("Test scene").setBackground(new Color(75, 127, 90));
+    /** Camera builder of the tests */
+    private final Camera.Builder builder = Camera.getBuilder()
+            .setRayTracer(new SimpleRayTracer(scene))
+            .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+            .setVpDistance(100)
+            .setVpSize(200, 200)
+            .setImageWriter(new ImageWriter("session test", 40, 30));
+
+    /**
+     * test starting a render and waiting for it
+     */
+    @Test
+    void testStartRender() {
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d));
+        List<RenderProgress> reports = new ArrayList<>();
+        Camera camera = builder.build().setMultiThreading(3).setProgressListener(reports::add);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 the render completes with the camera, and reports all the pixels as done
+        RenderSession session = camera.startRender();
+        assertSame(camera, session.completion().join(), "ERROR TC01");
+        assertTrue(session.isDone(), "ERROR TC01");
+        assertEquals(1200, session.progress().donePixels(), "ERROR TC01");
+        assertEquals(1200, reports.get(reports.size() - 1).donePixels(), "ERROR TC01");
+
+        // TC02 the same camera renders again
+        reports.clear();
+        assertSame(camera, camera.startRender().await(), "ERROR TC02");
+        assertEquals(1200, reports.get(reports.size() - 1).donePixels(), "ERROR TC02");
+        camera.setForkJoin(true).renderImage();
+        assertEquals(1200, reports.get(reports.size() - 1).donePixels(), "ERROR TC02");
+
+        // TC03 the failure of the render is thrown to the waiting caller
+        RenderSession failed = builder.setRayTracer(new SimpleRayTracer(scene) {
+            @Override
+            public Color traceRayPackets(List<primitives.Ray> rays) {
+                throw new IllegalStateException();
+            }
+        }).build().startRender();
+        assertThrows(IllegalStateException.class, failed::await, "ERROR TC03");
+    }
+
+    /**
+     * test cancelling a render and rendering within a time budget
+     */
+    @Test
+    void testTimeBudget() {
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d));
+        // a ray tracer that is slow for the rays of the anti-aliasing
+        SimpleRayTracer slow = new SimpleRayTracer(scene) {
+            @Override
+            public Color traceRayPackets(List<primitives.Ray> rays) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.traceRayPackets(rays);
+            }
+        };
+        Camera camera = builder.setRayTracer(slow).build().setRaynum(3);
+
+        // TC01 a render within its budget is exact
+        RenderSession session = camera.setTimeBudget(Duration.ofMinutes(1)).startRender();
+        session.await();
+        assertTrue(session.isExact(), "ERROR TC01");
+        assertEquals(1200, session.exactRegions().stream().mapToInt(ImageRegion::size).sum(), "ERROR TC01");
+
+        // TC02 out of budget, the render is completed by the fallback
+        session = camera.setTimeBudget(Duration.ofMillis(100)).startRender();
+        session.await();
+        assertFalse(session.isExact(), "ERROR TC02");
+        assertEquals(1200, session.progress().donePixels(), "ERROR TC02");
+        assertTrue(session.exactRegions().stream().mapToInt(ImageRegion::size).sum() < 1200, "ERROR TC02");
+
+        // TC03 a cancelled render completes without rendering the rest of the pixels
+        session = camera.setTimeBudget(null).startRender();
+        session.cancel();
+        session.await();
+        assertTrue(session.isDone(), "ERROR TC03");
+        assertFalse(session.isExact(), "ERROR TC03");
+        assertTrue(session.progress().donePixels() < 1200, "ERROR TC03");
+    }
+
+    /**
+     * test the rate and the estimated time of the progress
+     */
+    @Test
+    void testProgress() {
+        // TC01 the rate and the time left by the rate so far
+        RenderProgress progress = new RenderProgress(250, 1000, Duration.ofSeconds(5));
+        assertEquals(0.25, progress.fraction(), 1e-10, "ERROR TC01");
+        assertEquals(50, progress.pixelsPerSecond(), 1e-10, "ERROR TC01");
+        assertEquals(Duration.ofSeconds(15), progress.eta(), "ERROR TC01");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC02 nothing done yet
+        assertNull(new RenderProgress(0, 1000, Duration.ofSeconds(5)).eta(), "ERROR TC02");
+        // TC03 all done
+        assertEquals(Duration.ZERO, new RenderProgress(1000, 1000, Duration.ofSeconds(5)).eta(), "ERROR TC03");
+    }
+}
@@ -0,0 +1,274 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * test class to check all function of TileScheduler class
+ * @author Adi and Ruth
+ *
+ */
+class TileSchedulerTests {
+
+    /**
+     * test handing out the tiles
+     */
+    @Test
+    void testNextTile() {
+        TileScheduler scheduler = new TileScheduler(20, 10, 8, null);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 the tiles are handed out row by row
+        assertEquals(new ImageRegion(0, 0, 8, 8), scheduler.nextTile(), "ERROR TC01");
+        assertEquals(new ImageRegion(8, 0, 16, 8), scheduler.nextTile(), "ERROR TC01");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC02 the tiles at the edges of the image are cut
+        assertEquals(new ImageRegion(16, 0, 20, 8), scheduler.nextTile(), "ERROR TC02");
+        assertEquals(new ImageRegion(0, 8, 8, 10), scheduler.nextTile(), "ERROR TC02");
+        scheduler.nextTile();
+        assertEquals(new ImageRegion(16, 8, 20, 10), scheduler.nextTile(), "ERROR TC02");
+
+        // TC03 no more tiles
+        assertNull(scheduler.nextTile(), "ERROR TC03");
+
+        // TC04 a stopped scheduler hands out no tiles
+        scheduler = new TileScheduler(20, 10, 8, null);
+        scheduler.stop();
+        assertNull(scheduler.nextTile(), "ERROR TC04");
+
+        // TC05 illegal sizes
+        assertThrows(IllegalArgumentException.class, () -> new TileScheduler(0, 10, 8, null), "ERROR TC05");
+        assertThrows(IllegalArgumentException.class, () -> new TileScheduler(10, 10, 0, null), "ERROR TC05");
+    }
+
+    /**
+     * test rendering all the pixels by several threads
+     */
+    @Test
+    void testStart() {
+        // TC01 every pixel is rendered exactly once
+        int nX = 37, nY = 23;
+        AtomicIntegerArray count = new AtomicIntegerArray(nX * nY);
+        TileScheduler scheduler = new TileScheduler(nX, nY, 4, null);
+        scheduler.start(4, (col, row) -> count.incrementAndGet(row * nX + col)).join();
+        for (int i = 0; i < nX * nY; ++i)
+            assertEquals(1, count.get(i), "ERROR TC01");
+        assertEquals(nX * nY, scheduler.donePixels(), "ERROR TC01");
+
+        // TC02 two renders at the same time
+        AtomicIntegerArray first = new AtomicIntegerArray(nX * nY), second = new AtomicIntegerArray(nX * nY);
+        CompletableFuture<Void> other = new TileScheduler(nX, nY, 4, null)
+                .start(3, (col, row) -> first.incrementAndGet(row * nX + col));
+        new TileScheduler(nX, nY, 4, null).start(3, (col, row) -> second.incrementAndGet(row * nX + col)).join();
+        other.join();
+        for (int i = 0; i < nX * nY; ++i) {
+            assertEquals(1, first.get(i), "ERROR TC02");
+            assertEquals(1, second.get(i), "ERROR TC02");
+        }
+
+        // TC03 the render completes with the failure of a thread
+        TileScheduler failing = new TileScheduler(nX, nY, 4, null);
+        CompletableFuture<Void> failed = failing.start(2, (col, row) -> {
+            if (col == 30 && row == 20)
+                throw new IllegalStateException();
+        });
+        CompletionException e = assertThrows(CompletionException.class, failed::join, "ERROR TC03");
+        assertInstanceOf(IllegalStateException.class, e.getCause(), "ERROR TC03");
+        assertTrue(failing.donePixels() < nX * nY, "ERROR TC03");
+    }
+
+    /**
+     * test rendering all the pixels by fork/join tasks
+     */
+    @Test
+    void testStartRecursively() {
+        // TC01 every pixel is rendered exactly once
+        int nX = 37, nY = 23;
+        AtomicIntegerArray count = new AtomicIntegerArray(nX * nY);
+        TileScheduler scheduler = new TileScheduler(nX, nY, 4, null);
+        scheduler.startRecursively(4, (col, row) -> count.incrementAndGet(row * nX + col)).join();
+        for (int i = 0; i < nX * nY; ++i)
+            assertEquals(1, count.get(i), "ERROR TC01");
+        assertEquals(nX * nY, scheduler.donePixels(), "ERROR TC01");
+
+        // TC02 a pixel may fork tasks of its own
+        AtomicIntegerArray forked = new AtomicIntegerArray(nX * nY);
+        new TileScheduler(nX, nY, 4, null).startRecursively(2, (col, row) -> ForkJoinTask.invokeAll(
+                ForkJoinTask.adapt(() -> forked.incrementAndGet(row * nX + col)),
+                ForkJoinTask.adapt(() -> forked.incrementAndGet(row * nX + col)))).join();
+        for (int i = 0; i < nX * nY; ++i)
+            assertEquals(2, forked.get(i), "ERROR TC02");
+
+        // TC03 the render completes with the failure of a pixel
+        TileScheduler failing = new TileScheduler(nX, nY, 4, null);
+        CompletableFuture<Void> failed = failing.startRecursively(2, (col, row) -> {
+            if (col == 30 && row == 20)
+                throw new IllegalStateException();
+        });
+        CompletionException e = assertThrows(CompletionException.class, failed::join, "ERROR TC03");
+        assertInstanceOf(IllegalStateException.class, e.getCause(), "ERROR TC03");
+        assertTrue(failing.donePixels() < nX * nY, "ERROR TC03");
+    }
+
+    /**
+     * test rendering in several passes by the same threads
+     */
+    @Test
+    void testPasses() {
+        int nX = 37, nY = 23;
+        AtomicIntegerArray count = new AtomicIntegerArray(nX * nY);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger rendering = new AtomicInteger(), passes = new AtomicInteger(1);
+        TileScheduler.PixelRenderer renderer = (col, row) -> {
+            rendering.incrementAndGet();
+            threads.add(Thread.currentThread());
+            count.incrementAndGet(row * nX + col);
+            rendering.decrementAndGet();
+        };
+        // the next pass is decided while no pixel is rendered, 4 passes in all
+        TileScheduler.NextPass nextPass = () -> {
+            assertEquals(0, rendering.get(), "ERROR TC01");
+            return passes.incrementAndGet() <= 4 ? renderer : null;
+        };
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 every pixel is rendered once in each pass, by the same threads
+        TileScheduler scheduler = new TileScheduler(nX, nY, 4, null);
+        scheduler.start(3, renderer, nextPass).join();
+        for (int i = 0; i < nX * nY; ++i)
+            assertEquals(4, count.get(i), "ERROR TC01");
+        assertEquals(5, passes.get(), "ERROR TC01");
+        assertTrue(threads.size() <= 3, "ERROR TC01");
+        assertEquals(nX * nY, scheduler.donePixels(), "ERROR TC01");
+        assertTrue(scheduler.isExact(), "ERROR TC01");
+
+        // TC02 the same by the tasks of a single pool
+        for (int i = 0; i < nX * nY; ++i)
+            count.set(i, 0);
+        threads.clear();
+        passes.set(1);
+        new TileScheduler(nX, nY, 4, null).startRecursively(2, renderer, nextPass).join();
+        for (int i = 0; i < nX * nY; ++i)
+            assertEquals(4, count.get(i), "ERROR TC02");
+        assertTrue(threads.size() <= 2, "ERROR TC02");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC03 a stopped render starts no other pass
+        TileScheduler stopped = new TileScheduler(nX, nY, 4, null);
+        passes.set(1);
+        stopped.start(2, (col, row) -> stopped.stop(), nextPass).join();
+        assertEquals(2, passes.get(), "ERROR TC03");
+
+        // TC04 the failure of the next pass fails the render
+        CompletableFuture<Void> failed = new TileScheduler(nX, nY, 4, null).start(2, renderer, () -> {
+            throw new IllegalStateException();
+        });
+        CompletionException e = assertThrows(CompletionException.class, failed::join, "ERROR TC04");
+        assertInstanceOf(IllegalStateException.class, e.getCause(), "ERROR TC04");
+    }
+
+    /**
+     * test reporting the progress
+     */
+    @Test
+    void testProgress() {
+        int nX = 100, nY = 50;
+        List<RenderProgress> reports = new ArrayList<>();
+        TileScheduler scheduler = new TileScheduler(nX, nY, 10, reports::add);
+        scheduler.start(3, (col, row) -> {
+        }).join();
+        List<RenderProgress> single = new ArrayList<>();
+        new TileScheduler(nX, nY, 10, single::add).start(1, (col, row) -> {
+        }).join();
+
+        // TC01 the progress only grows, and the last report is when all the pixels are done
+        for (int i = 1; i < reports.size(); ++i)
+            assertTrue(reports.get(i - 1).donePixels() < reports.get(i).donePixels(), "ERROR TC01");
+        assertEquals(nX * nY, reports.get(reports.size() - 1).donePixels(), "ERROR TC01");
+        assertEquals(1, reports.get(reports.size() - 1).fraction(), "ERROR TC01");
+
+        // TC02 a report for each tile, since a tile is more than a tenth of a percent; several
+        // threads may finish their tiles together
+        assertEquals(50, single.size(), "ERROR TC02");
+        assertTrue(reports.size() <= 50, "ERROR TC02");
+    }
+
+    /**
+     * test stopping a render and rendering by a deadline
+     */
+    @Test
+    void testDeadline() {
+        int nX = 40, nY = 20;
+
+        // TC01 a render within its deadline is exact
+        TileScheduler scheduler = new TileScheduler(nX, nY, 10, null);
+        scheduler.setDeadline(System.nanoTime() + 60_000_000_000L, (col, row) -> fail("ERROR TC01"));
+        scheduler.start(2, (col, row) -> {
+        }).join();
+        assertTrue(scheduler.isExact(), "ERROR TC01");
+        assertEquals(8, scheduler.exactRegions().size(), "ERROR TC01");
+
+        // TC02 the pixels after the deadline are rendered by the fallback, the regions that were
+        // done before it are exact
+        AtomicIntegerArray kind = new AtomicIntegerArray(nX * nY);
+        TileScheduler late = new TileScheduler(nX, nY, 10, null);
+        late.setDeadline(System.nanoTime() + 500_000_000L, (col, row) -> kind.set(row * nX + col, 2));
+        late.start(1, (col, row) -> {
+            kind.set(row * nX + col, 1);
+            if (col == 15 && row == 5)
+                sleep(700);
+        }).join();
+        assertFalse(late.isExact(), "ERROR TC02");
+        assertEquals(List.of(new ImageRegion(0, 0, 10, 10)), late.exactRegions(), "ERROR TC02");
+        assertEquals(nX * nY, late.donePixels(), "ERROR TC02");
+        for (int row = 0; row < nY; ++row)
+            for (int col = 0; col < nX; ++col)
+                assertEquals(row < 10 && col < 10 || row < 5 && col < 20 || row == 5 && col <= 15 ? 1 : 2,
+                        kind.get(row * nX + col), "ERROR TC02");
+
+        // TC03 a stopped render leaves the regions in progress unfinished
+        AtomicIntegerArray rendered = new AtomicIntegerArray(nX * nY);
+        TileScheduler stopped = new TileScheduler(nX, nY, 10, null);
+        stopped.startRecursively(1, (col, row) -> {
+            rendered.set(row * nX + col, 1);
+            if (col == 15 && row == 5)
+                stopped.stop();
+        }).join();
+        assertFalse(stopped.isExact(), "ERROR TC03");
+        int count = 0;
+        for (int i = 0; i < nX * nY; ++i)
+            count += rendered.get(i);
+        assertTrue(count < nX * nY, "ERROR TC03");
+        assertEquals(stopped.exactRegions().stream().mapToInt(ImageRegion::size).sum(), stopped.donePixels(),
+                "ERROR TC03");
+    }
+
+    /**
+     * Sleeps, to make a pixel slow
+     *
+     * @param millis the time to sleep in milliseconds
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}